@@ -0,0 +1,72 @@
+package com.space.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.space.model.Ship;
+import com.space.service.BenchmarkFleet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a listing page in each response format the REST converters offer.
+ * Each operation also counts the bytes it produced or consumed, so the secondary {@code bytes}
+ * result divided by the primary score is the payload size of that combination.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShipFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<Ship> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = "cbor".equals(format) ? WebConfig.createCborMapper() : WebConfig.createObjectMapper();
+        writer = mapper.writer();
+        reader = mapper.readerFor(new TypeReference<List<Ship>>() {
+        });
+        page = BenchmarkFleet.generate(pageSize, 42);
+        encoded = writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encode(Payload payload) throws Exception {
+        byte[] bytes = writer.writeValueAsBytes(page);
+        payload.bytes += bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public List<Ship> decode(Payload payload) throws Exception {
+        payload.bytes += encoded.length;
+        return reader.readValue(encoded);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Payload {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.space.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.space.model.Ship;
+import com.space.service.BenchmarkFleet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of ships through the ObjectMapper the REST converter uses, with the streaming
+ * {@link ShipSerializer} against the reflective field access it replaced.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShipJsonBenchmark {
+
+    @Param({"streaming", "reflective"})
+    private String serializer;
+
+    private ObjectWriter writer;
+    private Ship ship;
+    private List<Ship> page;
+    private List<Ship> largePage;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = "streaming".equals(serializer)
+                ? WebConfig.createObjectMapper()
+                : new ObjectMapper()
+                        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        writer = mapper.writer();
+        page = BenchmarkFleet.generate(20, 42);
+        ship = page.get(0);
+        largePage = BenchmarkFleet.generate(1000, 42);
+    }
+
+    @Benchmark
+    public byte[] singleShip() throws Exception {
+        return writer.writeValueAsBytes(ship);
+    }
+
+    @Benchmark
+    public byte[] pageOfTwenty() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] pageOfThousand() throws Exception {
+        return writer.writeValueAsBytes(largePage);
+    }
+}
@@ -0,0 +1,61 @@
+package com.space.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rating computation before and after moving to the primitive API.
+ * Run with {@code -prof gc} (the jmh profile does) to compare gc.alloc.rate.norm per op.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RateBenchmark {
+
+    private Ship ship;
+    private double speed;
+    private boolean used;
+    private long prodDate;
+
+    @Setup
+    public void setup() {
+        Calendar cal = Calendar.getInstance();
+        cal.clear();
+        cal.set(2995, Calendar.MARCH, 14);
+
+        ship = new Ship();
+        ship.setSpeed(0.82);
+        ship.setUsed(true);
+        ship.setProdDate(new Date(cal.getTimeInMillis()));
+
+        speed = ship.getSpeed();
+        used = ship.getUsed();
+        prodDate = ship.getProdDate().getTime();
+    }
+
+    @Benchmark
+    public Double calendar() {
+        double k = ship.getUsed() ? 0.5d : 1.0d;
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(ship.getProdDate());
+        double y1 = cal.get(Calendar.YEAR);
+        double result = (80 * ship.getSpeed() * k) / (3019 - y1 + 1);
+        return (double) Math.round(result * 100) / 100;
+    }
+
+    @Benchmark
+    public Double entity() {
+        return ShipUtils.rate(ship);
+    }
+
+    @Benchmark
+    public double primitive() {
+        return ShipUtils.rate(speed, used, ShipUtils.yearOf(prodDate));
+    }
+}
@@ -0,0 +1,88 @@
+package com.space.service;
+
+import com.space.config.AppConfig;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.model.ShipUtils;
+import com.space.repository.ShipRepository;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic fleet data and a dev-profile application context loaded with it.
+ */
+public final class BenchmarkFleet {
+
+    private static final String[] WORDS = {"Orion", "Daedalus", "Eagle", "Icarus", "Phoenix", "Nostromo",
+            "Serenity", "Tempest", "Aurora", "Voyager", "Valkyrie", "Hermes", "Pegasus", "Titan", "Nomad"};
+    private static final String[] PLANETS = {"Mercury", "Venus", "Earth", "Mars", "Jupiter", "Saturn",
+            "Uranus", "Neptune", "Pluto", "Ceres"};
+    private static final int LOAD_CHUNK = 10_000;
+
+    private BenchmarkFleet() {
+    }
+
+    public static List<Ship> generate(int count, long seed) {
+        Random random = new Random(seed);
+        Calendar cal = Calendar.getInstance();
+        List<Ship> ships = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            cal.clear();
+            cal.set(2800 + random.nextInt(220), random.nextInt(12), 1 + random.nextInt(28));
+
+            Ship ship = new Ship();
+            ship.setName(WORDS[random.nextInt(WORDS.length)] + " " + (i % 1000));
+            ship.setPlanet(PLANETS[random.nextInt(PLANETS.length)]);
+            ship.setShipType(ShipType.values()[random.nextInt(ShipType.values().length)]);
+            ship.setProdDate(new Date(cal.getTimeInMillis()));
+            ship.setUsed(random.nextBoolean());
+            ship.setSpeed(Math.round((0.01 + random.nextDouble() * 0.98) * 100) / 100d);
+            ship.setCrewSize(1 + random.nextInt(9999));
+            ship.setRating(ShipUtils.rate(ship));
+            ships.add(ship);
+        }
+        return ships;
+    }
+
+    /**
+     * Starts the application context against the embedded dev database and inserts {@code count} ships.
+     */
+    public static AnnotationConfigApplicationContext start(int count) {
+        return start(count, Collections.emptyMap());
+    }
+
+    /**
+     * @param properties overrides of application properties, e.g. to turn a cache off
+     */
+    public static AnnotationConfigApplicationContext start(int count, Map<String, Object> properties) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("dev");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.register(AppConfig.class);
+        context.refresh();
+
+        ShipRepository repository = context.getBean(ShipRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        List<Ship> ships = generate(count, 42);
+        for (int from = 0; from < count; from += LOAD_CHUNK) {
+            List<Ship> chunk = ships.subList(from, Math.min(from + LOAD_CHUNK, count));
+            transactionTemplate.execute(status -> {
+                repository.insertBatch(chunk);
+                return null;
+            });
+        }
+        context.getBeansOfType(ShipChangeListener.class).values().forEach(ShipChangeListener::fleetChanged);
+        return context;
+    }
+}
@@ -0,0 +1,86 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing and counting through ShipService against the embedded database.
+ * The query cache is disabled, so each op reaches the database and no background load runs
+ * during measurement; the text index stays built, as it does in a running application.
+ * Narrow the run with e.g. {@code -Djmh.args="ShipServiceBenchmark -p shipCount=1000"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ShipServiceBenchmark {
+
+    private static final ShipFilter NO_FILTER = filter(null, null, null, null, null, null, null);
+    private static final ShipFilter TYPE_AND_USED = filter(null, null, ShipType.MILITARY, false, null, null, null);
+    private static final ShipFilter SPEED_RANGE = filter(null, null, null, null, 0.3, 0.6, null);
+    private static final ShipFilter NAME_AND_PLANET = filter("rion 1", "ar", null, null, null, null, null);
+    private static final ShipFilter USED_AND_CREW = filter(null, null, null, true, null, null, 500);
+
+    @Param({"1000", "100000", "1000000"})
+    public int shipCount;
+
+    private AnnotationConfigApplicationContext context;
+    private ShipService service;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkFleet.start(shipCount, Collections.singletonMap("cache.queries.maximum-size", 0));
+        service = context.getBean(ShipService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Ship> firstPageUnfiltered() {
+        return service.getAllShipsByPage(NO_FILTER, ShipOrder.ID, 0, 20);
+    }
+
+    @Benchmark
+    public List<Ship> firstPageByTypeAndUsed() {
+        return service.getAllShipsByPage(TYPE_AND_USED, ShipOrder.RATING, 0, 20);
+    }
+
+    @Benchmark
+    public List<Ship> firstPageBySpeedRange() {
+        return service.getAllShipsByPage(SPEED_RANGE, ShipOrder.SPEED, 0, 20);
+    }
+
+    @Benchmark
+    public List<Ship> firstPageByNameAndPlanet() {
+        return service.getAllShipsByPage(NAME_AND_PLANET, ShipOrder.DATE, 0, 20);
+    }
+
+    @Benchmark
+    public List<Ship> deepPageByTypeAndUsed() {
+        return service.getAllShipsByPage(TYPE_AND_USED, ShipOrder.RATING, 40, 20);
+    }
+
+    @Benchmark
+    public long countByUsedAndCrew() {
+        return service.getShipsCount(USED_AND_CREW);
+    }
+
+    private static ShipFilter filter(String name, String planet, ShipType shipType, Boolean isUsed,
+                                     Double minSpeed, Double maxSpeed, Integer minCrewSize) {
+        return new ShipFilter(name, planet, shipType, null, null, isUsed,
+                minSpeed, maxSpeed, minCrewSize, null, null, null);
+    }
+}
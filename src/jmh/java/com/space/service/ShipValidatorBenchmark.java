@@ -0,0 +1,42 @@
+package com.space.service;
+
+import com.space.exceptions.WrongRequestException;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShipValidatorBenchmark {
+
+    private Ship valid;
+    private Ship invalid;
+
+    @Setup
+    public void setup() {
+        valid = BenchmarkFleet.generate(1, 42).get(0);
+        invalid = BenchmarkFleet.generate(1, 42).get(0);
+        invalid.setCrewSize(10_000);
+    }
+
+    @Benchmark
+    public Ship validShip() {
+        ShipValidator.checkNewShip(valid);
+        return valid;
+    }
+
+    @Benchmark
+    public String invalidShip() {
+        try {
+            ShipValidator.checkNewShip(invalid);
+            return null;
+        } catch (WrongRequestException e) {
+            return e.getMessage();
+        }
+    }
+}
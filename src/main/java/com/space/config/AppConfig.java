@@ -1,17 +1,28 @@
 package com.space.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.flywaydb.core.Flyway;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.EnableMBeanExport;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jmx.support.RegistrationPolicy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -23,11 +34,20 @@ import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.
 
 @Configuration
 @EnableTransactionManagement
+@EnableMBeanExport(registration = RegistrationPolicy.REPLACE_EXISTING)
+@PropertySource("classpath:application.properties")
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
 public class AppConfig {
 
+    private final Environment env;
+
+    public AppConfig(Environment env) {
+        this.env = env;
+    }
+
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
@@ -41,27 +61,96 @@ public class AppConfig {
     }
 
     @Profile("prod")
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("cosmoport");
+        config.setDriverClassName(env.getRequiredProperty("db.driver"));
+        config.setJdbcUrl(env.getRequiredProperty("db.url"));
+        config.setUsername(env.getRequiredProperty("db.username"));
+        config.setPassword(env.getRequiredProperty("db.password"));
+
+        config.setMinimumIdle(env.getRequiredProperty("db.pool.min-idle", Integer.class));
+        config.setMaximumPoolSize(env.getRequiredProperty("db.pool.max-size", Integer.class));
+        config.setConnectionTimeout(env.getRequiredProperty("db.pool.connection-timeout-ms", Long.class));
+        config.setValidationTimeout(env.getRequiredProperty("db.pool.validation-timeout-ms", Long.class));
+        config.setIdleTimeout(env.getRequiredProperty("db.pool.idle-timeout-ms", Long.class));
+        config.setMaxLifetime(env.getRequiredProperty("db.pool.max-lifetime-ms", Long.class));
+        config.setLeakDetectionThreshold(env.getRequiredProperty("db.pool.leak-detection-threshold-ms", Long.class));
+
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", env.getRequiredProperty("db.pool.statement-cache-size"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", env.getRequiredProperty("db.pool.statement-cache-sql-limit"));
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("useCursorFetch", "true");
+
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(connectionPoolMetrics());
+        return new ProfilingDataSource(new HikariDataSource(config));
+    }
+
+    @Profile("prod")
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
     }
 
     @Profile("dev")
     @Bean(name = "dataSource")
     public DataSource dataSourceForTests() {
 
-        return new EmbeddedDatabaseBuilder()
+        return new ProfilingDataSource(new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
                 .setType(H2)
-                .setScriptEncoding("UTF-8")
-                .ignoreFailedDrops(true)
-                .addScript("test.sql")
-                .build();
+                .build());
+    }
+
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource())
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    @Bean
+    public CompressionFilter compressionFilter() {
+        return new CompressionFilter(env.getRequiredProperty("compression.min-size", Integer.class));
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor queryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ship-query-");
+        executor.setCorePoolSize(env.getRequiredProperty("query.executor.threads", Integer.class));
+        executor.setMaxPoolSize(env.getRequiredProperty("query.executor.threads", Integer.class));
+        executor.setQueueCapacity(env.getRequiredProperty("query.executor.queue-capacity", Integer.class));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor queryCacheLoader() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ship-query-cache-");
+        executor.setCorePoolSize(env.getRequiredProperty("cache.queries.loader-threads", Integer.class));
+        executor.setMaxPoolSize(env.getRequiredProperty("cache.queries.loader-threads", Integer.class));
+        executor.setQueueCapacity(env.getRequiredProperty("cache.queries.loader-queue-capacity", Integer.class));
+        return executor;
     }
 
     @Bean
@@ -80,6 +169,7 @@ public class AppConfig {
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.metadata_builder_contributor", WindowFunctions.class.getName());
 
         return properties;
     }
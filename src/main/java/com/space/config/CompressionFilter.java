@@ -0,0 +1,265 @@
+package com.space.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses responses with gzip or deflate, whichever the client accepts, once their body
+ * grows past {@code minSize} bytes. Smaller bodies are buffered and sent as they are, larger
+ * ones are streamed through the compressor, so nothing is held in memory beyond the threshold.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final int minSize;
+
+    public CompressionFilter(int minSize) {
+        this.minSize = minSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // an async dispatch writes through the wrapper its initial dispatch created
+        CompressingResponse compressing = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        if (compressing == null) {
+            String coding = coding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (coding == null || "HEAD".equals(request.getMethod())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            compressing = new CompressingResponse(response, coding, minSize);
+        }
+
+        filterChain.doFilter(request, compressing);
+
+        if (!isAsyncStarted(request)) {
+            compressing.finish();
+        }
+    }
+
+    private static String coding(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        String accepted = acceptEncoding.toLowerCase();
+        if (accepts(accepted, "gzip")) return "gzip";
+        if (accepts(accepted, "deflate")) return "deflate";
+        return null;
+    }
+
+    private static boolean accepts(String acceptEncoding, String coding) {
+        for (String part : acceptEncoding.split(",")) {
+            String[] value = part.trim().split(";");
+            if (value[0].trim().equals(coding)) {
+                return value.length == 1 || !value[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean compressible(String contentType) {
+        if (contentType == null) return false;
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript")
+                || type.contains("xml") || type.contains("cbor");
+    }
+
+    private static final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String coding;
+        private final int minSize;
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private long contentLength = -1;
+        private boolean nonBlocking;
+
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CompressingResponse(HttpServletResponse response, String coding, int minSize) {
+            super(response);
+            this.coding = coding;
+            this.minSize = minSize;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        CompressingResponse.this.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (target != null) target.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        try {
+                            return !nonBlocking || getResponse().getOutputStream().isReady();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        writeDirectly(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                contentLength = Long.parseLong(value);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                contentLength = Long.parseLong(value);
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            // below the threshold the decision is still open, keep buffering
+            if (writer != null) writer.flush();
+            if (target != null) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return target != null && super.isCommitted();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (target != null) throw new IllegalStateException("Response already streamed");
+            buffer.reset();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+            contentLength = -1;
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (buffer.size() + len <= minSize) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                start(compressible(getContentType()) && getHeader(HttpHeaders.CONTENT_ENCODING) == null);
+            }
+            target.write(b, off, len);
+        }
+
+        private void start(boolean compress) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (compress) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, coding);
+                target = "gzip".equals(coding)
+                        ? new GZIPOutputStream(response.getOutputStream(), 8192, true)
+                        : new DeflaterOutputStream(response.getOutputStream(), true);
+            } else {
+                if (contentLength >= 0) response.setContentLengthLong(contentLength);
+                target = response.getOutputStream();
+            }
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        /**
+         * A compressor cannot honour {@code isReady}, so non-blocking writes go to the container
+         * stream as they are. Anything buffered so far is sent before the listener takes over.
+         */
+        private void writeDirectly(WriteListener writeListener) {
+            if (target instanceof DeflaterOutputStream) {
+                throw new IllegalStateException("Response already compressed");
+            }
+            try {
+                if (target == null) start(false);
+                nonBlocking = true;
+                getResponse().getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) writer.flush();
+            if (target == null) {
+                // nothing was written, e.g. 304 or an error sent by the container
+                if (buffer.size() == 0) return;
+                contentLength = buffer.size();
+                start(false);
+            }
+            if (target instanceof DeflaterOutputStream) {
+                ((DeflaterOutputStream) target).finish();
+            }
+            target.flush();
+        }
+    }
+}
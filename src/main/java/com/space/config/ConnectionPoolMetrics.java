@@ -0,0 +1,108 @@
+package com.space.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@ManagedResource(objectName = "com.space:type=ConnectionPool", description = "Ship database connection pool")
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private volatile PoolStats poolStats;
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new Tracker();
+    }
+
+    @ManagedAttribute(description = "Connections currently in use")
+    public int getActiveConnections() {
+        return poolStats == null ? 0 : poolStats.getActiveConnections();
+    }
+
+    @ManagedAttribute(description = "Connections idle in the pool")
+    public int getIdleConnections() {
+        return poolStats == null ? 0 : poolStats.getIdleConnections();
+    }
+
+    @ManagedAttribute(description = "Threads waiting for a connection")
+    public int getPendingThreads() {
+        return poolStats == null ? 0 : poolStats.getPendingThreads();
+    }
+
+    @ManagedAttribute(description = "Open connections, active and idle")
+    public int getTotalConnections() {
+        return poolStats == null ? 0 : poolStats.getTotalConnections();
+    }
+
+    @ManagedAttribute(description = "Maximum pool size")
+    public int getMaxConnections() {
+        return poolStats == null ? 0 : poolStats.getMaxConnections();
+    }
+
+    @ManagedAttribute(description = "Connections handed out by the pool")
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    @ManagedAttribute(description = "Total time spent waiting for a connection, ms")
+    public double getAcquireWaitMillis() {
+        return acquireNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @ManagedAttribute(description = "Average time spent waiting for a connection, ms")
+    public double getAverageAcquireWaitMillis() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0 : getAcquireWaitMillis() / count;
+    }
+
+    @ManagedAttribute(description = "Longest wait for a connection, ms")
+    public double getMaxAcquireWaitMillis() {
+        return maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @ManagedAttribute(description = "Average time a connection is held before it is returned, ms")
+    public double getAverageUsageMillis() {
+        long count = usageCount.sum();
+        return count == 0 ? 0 : usageMillis.sum() / (double) count;
+    }
+
+    @ManagedAttribute(description = "Requests that timed out waiting for a connection")
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    private class Tracker implements IMetricsTracker {
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireCount.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageCount.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.space.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps connections, statements and result sets in JDK dynamic proxies recording into the
+ * current {@link SqlStats}: connection acquire time, executed statements with their time and
+ * fetched rows. A batch counts as one statement.
+ */
+public class ProfilingDataSource extends DelegatingDataSource implements Closeable {
+
+    public ProfilingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return profile(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return profile(connection, start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        DataSource target = getTargetDataSource();
+        if (target instanceof EmbeddedDatabase) {
+            ((EmbeddedDatabase) target).shutdown();
+        } else if (target instanceof Closeable) {
+            ((Closeable) target).close();
+        }
+    }
+
+    private static Connection profile(Connection connection, long start) {
+        SqlStats stats = SqlStats.current();
+        if (stats == null) {
+            return connection;
+        }
+        stats.connectionAcquired(System.nanoTime() - start);
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement) {
+                return profileStatement(method.getReturnType(), (Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private static Object profileStatement(Class<?> type, Statement statement) {
+        return proxy(type, statement, (method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = invoke(statement, method, args);
+                return name.equals("getResultSet") && result != null ? profileResultSet((ResultSet) result) : result;
+            }
+
+            long start = System.nanoTime();
+            Object result = invoke(statement, method, args);
+            SqlStats stats = SqlStats.current();
+            if (stats != null) {
+                stats.statementExecuted(System.nanoTime() - start);
+            }
+            return result instanceof ResultSet ? profileResultSet((ResultSet) result) : result;
+        });
+    }
+
+    private static ResultSet profileResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                SqlStats stats = SqlStats.current();
+                if (stats != null) {
+                    stats.rowFetched();
+                }
+            }
+            return result;
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            return handler.handle(method, args);
+        };
+        return (T) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,71 @@
+package com.space.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.space.model.Ship;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Writes a ship straight to the generator through its getters, with pre-encoded field names and
+ * dates as epoch millis. The output matches the reflective field-based serialization it replaces.
+ */
+public class ShipSerializer extends StdSerializer<Ship> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString PLANET = new SerializedString("planet");
+    private static final SerializedString SHIP_TYPE = new SerializedString("shipType");
+    private static final SerializedString PROD_DATE = new SerializedString("prodDate");
+    private static final SerializedString IS_USED = new SerializedString("isUsed");
+    private static final SerializedString SPEED = new SerializedString("speed");
+    private static final SerializedString CREW_SIZE = new SerializedString("crewSize");
+    private static final SerializedString RATING = new SerializedString("rating");
+
+    public ShipSerializer() {
+        super(Ship.class);
+    }
+
+    @Override
+    public void serialize(Ship ship, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(ship);
+
+        gen.writeFieldName(ID);
+        Long id = ship.getId();
+        if (id == null) gen.writeNull(); else gen.writeNumber(id);
+
+        gen.writeFieldName(NAME);
+        gen.writeString(ship.getName());
+
+        gen.writeFieldName(PLANET);
+        gen.writeString(ship.getPlanet());
+
+        gen.writeFieldName(SHIP_TYPE);
+        if (ship.getShipType() == null) gen.writeNull(); else gen.writeString(ship.getShipType().name());
+
+        gen.writeFieldName(PROD_DATE);
+        Date prodDate = ship.getProdDate();
+        if (prodDate == null) gen.writeNull(); else gen.writeNumber(prodDate.getTime());
+
+        gen.writeFieldName(IS_USED);
+        Boolean used = ship.getUsed();
+        if (used == null) gen.writeNull(); else gen.writeBoolean(used);
+
+        gen.writeFieldName(SPEED);
+        Double speed = ship.getSpeed();
+        if (speed == null) gen.writeNull(); else gen.writeNumber(speed);
+
+        gen.writeFieldName(CREW_SIZE);
+        Integer crewSize = ship.getCrewSize();
+        if (crewSize == null) gen.writeNull(); else gen.writeNumber(crewSize);
+
+        gen.writeFieldName(RATING);
+        Double rating = ship.getRating();
+        if (rating == null) gen.writeNull(); else gen.writeNumber(rating);
+
+        gen.writeEndObject();
+    }
+}
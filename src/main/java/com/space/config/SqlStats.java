@@ -0,0 +1,91 @@
+package com.space.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JDBC work done by the current thread between {@link #begin()} and {@link #end()}, typically
+ * one HTTP request, possibly handed over to a worker with {@link #attach(SqlStats)}. Filled in by {@link ProfilingDataSource}; work outside a begun scope is not counted.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong executionNanos = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong connectionNanos = new AtomicLong();
+
+    private SqlStats() {
+    }
+
+    public static SqlStats begin() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Continues a scope begun on another thread, e.g. when a request is handed to a worker.
+     * A worker outliving a timed out request may still count into it, the counters are atomic;
+     * {@link #end()} unbinds the scope again.
+     */
+    public static void attach(SqlStats stats) {
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+    }
+
+    /**
+     * @return the stats of the current scope, or {@code null} outside of one
+     */
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the stats of the scope just ended, or {@code null} if none was begun
+     */
+    public static SqlStats end() {
+        SqlStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void statementExecuted(long nanos) {
+        statements.incrementAndGet();
+        executionNanos.addAndGet(nanos);
+    }
+
+    void rowFetched() {
+        rows.incrementAndGet();
+    }
+
+    void connectionAcquired(long nanos) {
+        connections.incrementAndGet();
+        connectionNanos.addAndGet(nanos);
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getExecutionNanos() {
+        return executionNanos.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public long getConnectionNanos() {
+        return connectionNanos.get();
+    }
+}
@@ -2,13 +2,22 @@ package com.space.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.space.controller.ConditionalGetInterceptor;
+import com.space.controller.RequestMetricsInterceptor;
+import com.space.controller.SqlProfilingInterceptor;
+import com.space.model.Ship;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -22,6 +31,16 @@ import java.util.List;
 @ComponentScan("com.space.controller")
 public class WebConfig implements WebMvcConfigurer {
 
+    private final RequestMetricsInterceptor requestMetricsInterceptor;
+    private final SqlProfilingInterceptor sqlProfilingInterceptor;
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+    public WebConfig(RequestMetricsInterceptor requestMetricsInterceptor, SqlProfilingInterceptor sqlProfilingInterceptor,
+                     ConditionalGetInterceptor conditionalGetInterceptor) {
+        this.requestMetricsInterceptor = requestMetricsInterceptor;
+        this.sqlProfilingInterceptor = sqlProfilingInterceptor;
+        this.conditionalGetInterceptor = conditionalGetInterceptor;
+    }
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -37,16 +56,43 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addViewController("/").setViewName("index");
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestMetricsInterceptor).addPathPatterns("/rest/**");
+        registry.addInterceptor(sqlProfilingInterceptor).addPathPatterns("/rest/**");
+        registry.addInterceptor(conditionalGetInterceptor).addPathPatterns("/rest/ships", "/rest/ships/**")
+                .excludePathPatterns("/rest/ships/export", "/rest/ships/{id:\\d+}");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/resources/**").addResourceLocations("/resources/");
     }
 
+    @Bean
+    public ObjectMapper objectMapper() {
+        return createObjectMapper();
+    }
+
+    static ObjectMapper createObjectMapper() {
+        return configure(new ObjectMapper());
+    }
+
+    static ObjectMapper createCborMapper() {
+        return configure(new ObjectMapper(new CBORFactory()));
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        mapper.registerModule(new SimpleModule("ShipModule").addSerializer(Ship.class, new ShipSerializer()));
+        return mapper;
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        // JSON stays the default, CBOR is served to clients asking for application/cbor
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(createCborMapper()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.space.config;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * SQL window functions the criteria API cannot express, callable as {@code cb.function(name, type)}.
+ * Both MySQL 8 and H2 1.4.198+ evaluate them before {@code LIMIT}; MySQL 5.7, which the configured
+ * dialect still targets, has none, so callers check {@link #isSupported} and fall back to plain SQL.
+ */
+public class WindowFunctions implements MetadataBuilderContributor {
+
+    /**
+     * Number of rows matching the query, repeated on every returned row.
+     */
+    public static final String TOTAL_ROWS = "total_rows";
+
+    /**
+     * @return whether the connected database evaluates window functions
+     */
+    public static boolean isSupported(DatabaseMetaData metaData) throws SQLException {
+        switch (metaData.getDatabaseProductName()) {
+            case "MySQL":
+                return metaData.getDatabaseMajorVersion() >= 8;
+            case "H2":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(TOTAL_ROWS, new SQLFunctionTemplate(StandardBasicTypes.LONG, "count(*) over()"));
+    }
+}
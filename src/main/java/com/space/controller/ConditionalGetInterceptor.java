@@ -0,0 +1,96 @@
+package com.space.controller;
+
+import com.space.model.Ship;
+import com.space.service.FleetVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Tags ship listings with a strong ETag digesting the {@link FleetVersion} and the request URL and
+ * negotiation headers, so a tag names one exact representation. A matching {@code If-None-Match}
+ * is answered with 304 before the handler runs, without touching the database.
+ * <p>
+ * A single ship is tagged by the handler from that ship's own fields instead, see
+ * {@link #checkNotModified(Ship, HttpServletRequest, HttpServletResponse)}, so writes to other
+ * ships leave its tag alone.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final String ETAG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".etag";
+    private static final int ETAG_BYTES = 16;
+
+    private final FleetVersion fleetVersion;
+
+    public ConditionalGetInterceptor(FleetVersion fleetVersion) {
+        this.fleetVersion = fleetVersion;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) return true;
+        // an async dispatch keeps the tag taken before its query ran
+        if (request.getAttribute(ETAG_ATTRIBUTE) != null) return true;
+
+        String etag = etag(request, fleetVersion.getCurrent());
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * Tags the response with the state of {@code ship}.
+     *
+     * @return whether a 304 was set and the body has to be skipped
+     */
+    static boolean checkNotModified(Ship ship, HttpServletRequest request, HttpServletResponse response) {
+        String etag = etag(request, ship.getId(), ship.getName(), ship.getPlanet(), ship.getShipType(),
+                ship.getProdDate() == null ? null : ship.getProdDate().getTime(), ship.getUsed(),
+                ship.getSpeed(), ship.getCrewSize(), ship.getRating());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * SHA-256 of the state and the representation asked for, truncated to 128 bits.
+     */
+    private static String etag(HttpServletRequest request, Object... state) {
+        MessageDigest digest = sha256();
+        for (Object part : state) {
+            update(digest, part);
+        }
+        update(digest, request.getRequestURI());
+        update(digest, request.getQueryString());
+        update(digest, request.getHeader(HttpHeaders.ACCEPT));
+        update(digest, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        byte[] hash = Arrays.copyOf(digest.digest(), ETAG_BYTES);
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+    }
+
+    private static void update(MessageDigest digest, Object part) {
+        if (part != null) {
+            digest.update(part.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        // separates the parts and tells null from empty
+        digest.update((byte) (part == null ? 1 : 0));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every JVM", e);
+        }
+    }
+}
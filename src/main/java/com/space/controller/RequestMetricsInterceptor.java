@@ -0,0 +1,60 @@
+package com.space.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every request into {@code http.server.requests}, tagged by method, mapped uri pattern,
+ * status and the exception that ended it, so throughput and error rates come from the counts.
+ */
+@Component
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final MeterRegistry registry;
+
+    public RequestMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // an async dispatch is timed from the initial one, it only ends there
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long start = (Long) request.getAttribute(START_ATTRIBUTE);
+        if (start == null) return;
+
+        // exceptions mapped to a status by a resolver are not passed in, only left as an attribute
+        Object exception = ex != null ? ex : request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        Timer.builder("http.server.requests")
+                .description("Requests handled by the controllers")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .tag("status", String.valueOf(response.getStatus()))
+                .tag("exception", exception == null ? "None" : exception.getClass().getSimpleName())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
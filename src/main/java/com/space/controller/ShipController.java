@@ -1,27 +1,67 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.space.config.SqlStats;
+import com.space.exceptions.ServiceUnavailableException;
+import com.space.exceptions.WrongRequestException;
 import com.space.model.Ship;
+import com.space.model.ShipCursor;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
+import com.space.service.ShipBatchResult;
+import com.space.service.ShipPage;
 import com.space.service.ShipService;
-import com.space.service.ShipServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/rest/ships")
 public class ShipController {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final ShipService service;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader shipReader;
+    private final AsyncListenableTaskExecutor queryExecutor;
+    private final long queryTimeout;
 
     @Autowired
-    public ShipController(ShipServiceImpl shipServiceImpl) {
-        this.service = shipServiceImpl;
+    public ShipController(ShipService service, ObjectMapper objectMapper,
+                          @Qualifier("queryExecutor") AsyncListenableTaskExecutor queryExecutor,
+                          @Value("${query.executor.timeout-ms}") long queryTimeout) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+        this.shipReader = objectMapper.readerFor(Ship.class);
+        this.queryExecutor = queryExecutor;
+        this.queryTimeout = queryTimeout;
     }
 
     @GetMapping
-    public List<Ship> getAllShips(    @RequestParam(required = false) String name,
+    public DeferredResult<ResponseEntity<List<Ship>>> getAllShips(    @RequestParam(required = false) String name,
                                       @RequestParam(required = false) String planet,
                                       @RequestParam(required = false) ShipType shipType,
                                       @RequestParam(required = false) Long after,
@@ -35,18 +75,43 @@ public class ShipController {
                                       @RequestParam(required = false) Double maxRating,
                                       @RequestParam(required = false) ShipOrder order,
                                       @RequestParam(required = false, defaultValue = "0") Integer pageNumber,
-                                      @RequestParam(required = false, defaultValue = "3") Integer pageSize
+                                      @RequestParam(required = false, defaultValue = "3") Integer pageSize,
+                                      @RequestParam(required = false, defaultValue = "false") Boolean withTotal,
+                                      @RequestParam(required = false) String cursor
     ) {
 
-        List<Ship> list = service.getAllShips(name, planet, shipType,
+        ShipFilter filter = new ShipFilter(name, planet, shipType,
                 after, before, isUsed,
                 minSpeed, maxSpeed, minCrewSize,
-                maxCrewSize, minRating, maxRating, order);
-        return service.getAllShipsByPage(pageNumber, pageSize, list);
+                maxCrewSize, minRating, maxRating);
+
+        return query(() -> {
+            HttpHeaders headers = new HttpHeaders();
+            List<Ship> ships;
+
+            if (cursor != null) {
+                ships = service.getAllShipsAfter(filter, ShipCursor.decode(cursor, order), pageSize);
+                if (!ships.isEmpty() && ships.size() == pageSize) {
+                    Ship last = ships.get(ships.size() - 1);
+                    headers.set(NEXT_CURSOR_HEADER, ShipCursor.after(order, last).encode());
+                }
+                if (withTotal) {
+                    headers.set(TOTAL_COUNT_HEADER, String.valueOf(service.getShipsCount(filter)));
+                }
+            } else if (withTotal) {
+                // same listing as /page, the total travels in a header instead of the body
+                ShipPage page = service.getShipPage(filter, order, pageNumber, pageSize);
+                ships = page.getItems();
+                headers.set(TOTAL_COUNT_HEADER, String.valueOf(page.getTotal()));
+            } else {
+                ships = service.getAllShipsByPage(filter, order, pageNumber, pageSize);
+            }
+            return ResponseEntity.ok().headers(headers).body(ships);
+        });
     }
 
     @GetMapping("/count")
-    public Integer getShipsCount(       @RequestParam(required = false) String name,
+    public DeferredResult<Long> getShipsCount(       @RequestParam(required = false) String name,
                                         @RequestParam(required = false) String planet,
                                         @RequestParam(required = false) ShipType shipType,
                                         @RequestParam(required = false) Long after,
@@ -59,15 +124,73 @@ public class ShipController {
                                         @RequestParam(required = false) Double minRating,
                                         @RequestParam(required = false) Double maxRating
     ) {
-        return service.getAllShips(name, planet, shipType,
+        ShipFilter filter = new ShipFilter(name, planet, shipType,
                 after, before, isUsed,
                 minSpeed, maxSpeed, minCrewSize,
-                maxCrewSize, minRating, maxRating, null).size();
+                maxCrewSize, minRating, maxRating);
+        return query(() -> service.getShipsCount(filter));
+    }
+
+    @GetMapping("/page")
+    public DeferredResult<ShipPage> getShipPage(     @RequestParam(required = false) String name,
+                                                     @RequestParam(required = false) String planet,
+                                                     @RequestParam(required = false) ShipType shipType,
+                                                     @RequestParam(required = false) Long after,
+                                                     @RequestParam(required = false) Long before,
+                                                     @RequestParam(required = false) Boolean isUsed,
+                                                     @RequestParam(required = false) Double minSpeed,
+                                                     @RequestParam(required = false) Double maxSpeed,
+                                                     @RequestParam(required = false) Integer minCrewSize,
+                                                     @RequestParam(required = false) Integer maxCrewSize,
+                                                     @RequestParam(required = false) Double minRating,
+                                                     @RequestParam(required = false) Double maxRating,
+                                                     @RequestParam(required = false) ShipOrder order,
+                                                     @RequestParam(required = false, defaultValue = "0") Integer pageNumber,
+                                                     @RequestParam(required = false, defaultValue = "3") Integer pageSize
+    ) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType,
+                after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize,
+                maxCrewSize, minRating, maxRating);
+        return query(() -> service.getShipPage(filter, order, pageNumber, pageSize));
+    }
+
+    @GetMapping("/export")
+    public void exportShips(         @RequestParam(required = false) String name,
+                                     @RequestParam(required = false) String planet,
+                                     @RequestParam(required = false) ShipType shipType,
+                                     @RequestParam(required = false) Long after,
+                                     @RequestParam(required = false) Long before,
+                                     @RequestParam(required = false) Boolean isUsed,
+                                     @RequestParam(required = false) Double minSpeed,
+                                     @RequestParam(required = false) Double maxSpeed,
+                                     @RequestParam(required = false) Integer minCrewSize,
+                                     @RequestParam(required = false) Integer maxCrewSize,
+                                     @RequestParam(required = false) Double minRating,
+                                     @RequestParam(required = false) Double maxRating,
+                                     @RequestParam(required = false) ShipOrder order,
+                                     @RequestParam(required = false, defaultValue = "NDJSON") ExportFormat format,
+                                     HttpServletResponse response
+    ) throws IOException {
+        ShipFilter filter = new ShipFilter(name, planet, shipType,
+                after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize,
+                maxCrewSize, minRating, maxRating);
+
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        try (ShipExportWriter writer = new ShipExportWriter(format, response.getOutputStream(), objectMapper)) {
+            service.exportShips(filter, order, writer);
+        }
     }
 
     @GetMapping("/{id}")
-    public Ship getShipById(@PathVariable Long id) {
-        return service.getShipById(id);
+    public Ship getShipById(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) {
+        Ship ship = service.getShipById(id);
+        if (ConditionalGetInterceptor.checkNotModified(ship, request, response)) {
+            return null;
+        }
+        return ship;
     }
 
     @PostMapping
@@ -75,6 +198,37 @@ public class ShipController {
             return service.createNewShip(newShip);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE})
+    public ShipBatchResult createShips(HttpServletRequest request) throws IOException {
+        try (MappingIterator<Ship> ships = shipReader.readValues(request.getInputStream())) {
+            return service.createShips(items(ships));
+        }
+    }
+
+    /**
+     * Reports an item of the wrong shape as a {@link WrongRequestException}, the iterator skips
+     * past it and carries on. Broken JSON still fails with any other exception.
+     */
+    private static Iterator<Ship> items(MappingIterator<Ship> ships) {
+        return new Iterator<Ship>() {
+            @Override
+            public boolean hasNext() {
+                return ships.hasNext();
+            }
+
+            @Override
+            public Ship next() {
+                try {
+                    return ships.next();
+                } catch (RuntimeJsonMappingException e) {
+                    Throwable cause = e.getCause();
+                    throw new WrongRequestException(cause instanceof JsonMappingException
+                            ? ((JsonMappingException) cause).getOriginalMessage() : e.getMessage());
+                }
+            }
+        };
+    }
+
     @PostMapping("/{id}")
     public Ship updateShipById(@RequestBody Ship newShip, @PathVariable Long id) {
         return service.updateShipById(newShip, id);
@@ -84,4 +238,33 @@ public class ShipController {
     public void deleteShipById(@PathVariable Long id) {
         service.deleteShipById(id);
     }
+
+    /**
+     * Runs a listing query on the bounded query executor, so slow scans queue up there instead of
+     * holding container threads. A full queue or a query outliving the timeout answers 503.
+     */
+    private <T> DeferredResult<T> query(Supplier<T> work) {
+        DeferredResult<T> result = new DeferredResult<>(queryTimeout);
+        SqlStats stats = SqlStats.current();
+        Future<?> task;
+        try {
+            task = queryExecutor.submit(() -> {
+                SqlStats.attach(stats);
+                try {
+                    result.setResult(work.get());
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                } finally {
+                    SqlStats.end();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            throw new ServiceUnavailableException("Query executor is saturated");
+        }
+        result.onTimeout(() -> {
+            task.cancel(true);
+            result.setErrorResult(new ServiceUnavailableException("Query timed out"));
+        });
+        return result;
+    }
 }
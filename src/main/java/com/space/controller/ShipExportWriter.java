@@ -0,0 +1,93 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.space.model.Ship;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes ships one by one as NDJSON lines or CSV rows, nothing is kept after a row is written.
+ */
+class ShipExportWriter implements Consumer<Ship>, Closeable {
+
+    private static final String CSV_HEADER = "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating";
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final ObjectWriter jsonWriter;
+    private final JsonGenerator generator;
+
+    ShipExportWriter(ExportFormat format, OutputStream out, ObjectMapper mapper) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        if (format == ExportFormat.NDJSON) {
+            jsonWriter = mapper.writerFor(Ship.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            generator = mapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null);
+        } else {
+            jsonWriter = null;
+            generator = null;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public void accept(Ship ship) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                jsonWriter.writeValue(generator, ship);
+                generator.writeRaw('\n');
+            } else {
+                writeCsv(ship);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+        writer.close();
+    }
+
+    private void writeCsv(Ship ship) throws IOException {
+        writer.write(String.valueOf(ship.getId()));
+        writer.write(',');
+        writeCsvText(ship.getName());
+        writer.write(',');
+        writeCsvText(ship.getPlanet());
+        writer.write(',');
+        writer.write(ship.getShipType().name());
+        writer.write(',');
+        writer.write(String.valueOf(ship.getProdDate().getTime()));
+        writer.write(',');
+        writer.write(String.valueOf(ship.getUsed()));
+        writer.write(',');
+        writer.write(String.valueOf(ship.getSpeed()));
+        writer.write(',');
+        writer.write(String.valueOf(ship.getCrewSize()));
+        writer.write(',');
+        writer.write(String.valueOf(ship.getRating()));
+        writer.write('\n');
+    }
+
+    private void writeCsvText(String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,99 @@
+package com.space.controller;
+
+import com.space.config.SqlStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scopes {@link SqlStats} to a request, records them as {@code sql.*} meters by uri pattern and
+ * warns about requests running more than {@code sql.warn.statements} statements or fetching
+ * more than {@code sql.warn.rows} rows, the usual signs of an N+1 or a full scan.
+ */
+@Component
+public class SqlProfilingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlProfilingInterceptor.class);
+
+    private static final String STATS_ATTRIBUTE = SqlProfilingInterceptor.class.getName() + ".stats";
+
+    private final MeterRegistry registry;
+    private final int warnStatements;
+    private final long warnRows;
+
+    public SqlProfilingInterceptor(MeterRegistry registry,
+                                   @Value("${sql.warn.statements}") int warnStatements,
+                                   @Value("${sql.warn.rows}") long warnRows) {
+        this.registry = registry;
+        this.warnStatements = warnStatements;
+        this.warnRows = warnRows;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // an async dispatch carries on with the scope begun by the initial one
+        SqlStats stats = (SqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            request.setAttribute(STATS_ATTRIBUTE, SqlStats.begin());
+        } else {
+            SqlStats.attach(stats);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStats.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStats.end();
+        SqlStats stats = (SqlStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) return;
+        request.removeAttribute(STATS_ATTRIBUTE);
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+
+        summary("sql.statements", "Statements executed per request", method, uri).record(stats.getStatements());
+        summary("sql.rows", "Rows fetched per request", method, uri).record(stats.getRows());
+        timer("sql.execution", "Statement execution time per request", method, uri)
+                .record(stats.getExecutionNanos(), TimeUnit.NANOSECONDS);
+        timer("sql.connection.acquire", "Connection acquire time per request", method, uri)
+                .record(stats.getConnectionNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatements() > warnStatements || stats.getRows() > warnRows) {
+            log.warn("{} {} ran {} statements fetching {} rows in {} ms",
+                    method, request.getRequestURI() + (request.getQueryString() == null ? "" : "?" + request.getQueryString()),
+                    stats.getStatements(), stats.getRows(), TimeUnit.NANOSECONDS.toMillis(stats.getExecutionNanos()));
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry);
+    }
+
+    private Timer timer(String name, String description, String method, String uri) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
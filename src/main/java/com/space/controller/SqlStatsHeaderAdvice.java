@@ -0,0 +1,52 @@
+package com.space.controller;
+
+import com.space.config.SqlStats;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds the request's {@link SqlStats} as response headers in the dev profile, just before the
+ * body is written and the headers are committed.
+ */
+@ControllerAdvice
+public class SqlStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    static final String ROWS_HEADER = "X-Sql-Rows";
+    static final String TIME_HEADER = "X-Sql-Time-Ms";
+    static final String CONNECTION_HEADER = "X-Sql-Connection-Ms";
+
+    private final boolean enabled;
+
+    public SqlStatsHeaderAdvice(Environment env) {
+        this.enabled = env.acceptsProfiles(Profiles.of("dev"));
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStats stats = SqlStats.current();
+        if (stats != null) {
+            response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            response.getHeaders().set(ROWS_HEADER, String.valueOf(stats.getRows()));
+            response.getHeaders().set(TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getExecutionNanos())));
+            response.getHeaders().set(CONNECTION_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getConnectionNanos())));
+        }
+        return body;
+    }
+}
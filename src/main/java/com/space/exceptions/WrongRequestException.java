@@ -5,4 +5,11 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class WrongRequestException extends RuntimeException {
+
+    public WrongRequestException() {
+    }
+
+    public WrongRequestException(String message) {
+        super(message);
+    }
 }
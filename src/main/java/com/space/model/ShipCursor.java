@@ -0,0 +1,105 @@
+package com.space.model;
+
+import com.space.controller.ShipOrder;
+import com.space.exceptions.WrongRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+public class ShipCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final ShipOrder order;
+    private final Object sortKey;
+    private final Long id;
+
+    private ShipCursor(ShipOrder order, Object sortKey, Long id) {
+        this.order = order;
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public static ShipCursor first(ShipOrder order) {
+        return new ShipCursor(orderOrDefault(order), null, null);
+    }
+
+    public static ShipCursor after(ShipOrder order, Ship ship) {
+        ShipOrder sortOrder = orderOrDefault(order);
+        return new ShipCursor(sortOrder, sortKeyOf(sortOrder, ship), ship.getId());
+    }
+
+    public static ShipCursor decode(String token, ShipOrder order) {
+        ShipOrder sortOrder = orderOrDefault(order);
+        if (token.isEmpty()) {
+            return first(sortOrder);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (parts.length != 3 || ShipOrder.valueOf(parts[0]) != sortOrder) {
+                throw new WrongRequestException();
+            }
+            return new ShipCursor(sortOrder, parseSortKey(sortOrder, parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new WrongRequestException();
+        }
+    }
+
+    public String encode() {
+        String raw = order.name() + SEPARATOR + formatSortKey() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public ShipOrder getOrder() {
+        return order;
+    }
+
+    public Object getSortKey() {
+        return sortKey;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    private String formatSortKey() {
+        if (sortKey instanceof Date) {
+            return String.valueOf(((Date) sortKey).getTime());
+        }
+        return String.valueOf(sortKey);
+    }
+
+    private static ShipOrder orderOrDefault(ShipOrder order) {
+        return order == null ? ShipOrder.ID : order;
+    }
+
+    private static Object sortKeyOf(ShipOrder order, Ship ship) {
+        switch (order) {
+            case SPEED:
+                return ship.getSpeed();
+            case DATE:
+                return ship.getProdDate();
+            case RATING:
+                return ship.getRating();
+            default:
+                return ship.getId();
+        }
+    }
+
+    private static Object parseSortKey(ShipOrder order, String value) {
+        switch (order) {
+            case SPEED:
+            case RATING:
+                return Double.valueOf(value);
+            case DATE:
+                return new Date(Long.parseLong(value));
+            default:
+                return Long.valueOf(value);
+        }
+    }
+}
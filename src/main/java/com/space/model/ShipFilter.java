@@ -0,0 +1,200 @@
+package com.space.model;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+public class ShipFilter {
+
+    private final String name;
+    private final String planet;
+    private final ShipType shipType;
+    private final Long after;
+    private final Long before;
+    private final Boolean isUsed;
+    private final Double minSpeed;
+    private final Double maxSpeed;
+    private final Integer minCrewSize;
+    private final Integer maxCrewSize;
+    private final Double minRating;
+    private final Double maxRating;
+
+    public ShipFilter(String name,
+                      String planet,
+                      ShipType shipType,
+                      Long after,
+                      Long before,
+                      Boolean isUsed,
+                      Double minSpeed,
+                      Double maxSpeed,
+                      Integer minCrewSize,
+                      Integer maxCrewSize,
+                      Double minRating,
+                      Double maxRating) {
+        this.name = name;
+        this.planet = planet;
+        this.shipType = shipType;
+        this.after = after;
+        this.before = before;
+        this.isUsed = isUsed;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minCrewSize = minCrewSize;
+        this.maxCrewSize = maxCrewSize;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public Boolean getUsed() {
+        return isUsed;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    /**
+     * Lower bound on the production day: prodDate is stored as a DATE and read back as local
+     * midnight, so the first midnight not before {@code after}.
+     */
+    public Date getAfterDay() {
+        if (after == null) return null;
+
+        Calendar cal = startOfDay(after);
+        if (cal.getTimeInMillis() < after) {
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return cal.getTime();
+    }
+
+    /**
+     * Upper bound on the production day, the last midnight not after {@code before}.
+     */
+    public Date getBeforeDay() {
+        if (before == null) return null;
+        return startOfDay(before).getTime();
+    }
+
+    /**
+     * Attributes of {@link Ship} the filter restricts.
+     */
+    public Set<String> getFields() {
+        Set<String> fields = new HashSet<>();
+        if (name != null) fields.add("name");
+        if (planet != null) fields.add("planet");
+        if (shipType != null) fields.add("shipType");
+        if (after != null || before != null) fields.add("prodDate");
+        if (isUsed != null) fields.add("isUsed");
+        if (minSpeed != null || maxSpeed != null) fields.add("speed");
+        if (minCrewSize != null || maxCrewSize != null) fields.add("crewSize");
+        if (minRating != null || maxRating != null) fields.add("rating");
+        return fields;
+    }
+
+    /**
+     * In-memory counterpart of the database predicate. Text is matched case-sensitively, like the
+     * {@code LIKE} on the case-sensitive column collation.
+     */
+    public boolean matches(Ship ship) {
+        if (name != null && !ship.getName().contains(name)) return false;
+        if (planet != null && !ship.getPlanet().contains(planet)) return false;
+        if (shipType != null && shipType != ship.getShipType()) return false;
+        if (after != null || before != null) {
+            long day = startOfDay(ship.getProdDate().getTime()).getTimeInMillis();
+            if (after != null && day < getAfterDay().getTime()) return false;
+            if (before != null && day > getBeforeDay().getTime()) return false;
+        }
+        if (isUsed != null && !isUsed.equals(ship.getUsed())) return false;
+        if (minSpeed != null && ship.getSpeed() < minSpeed) return false;
+        if (maxSpeed != null && ship.getSpeed() > maxSpeed) return false;
+        if (minCrewSize != null && ship.getCrewSize() < minCrewSize) return false;
+        if (maxCrewSize != null && ship.getCrewSize() > maxCrewSize) return false;
+        if (minRating != null && ship.getRating() < minRating) return false;
+        if (maxRating != null && ship.getRating() > maxRating) return false;
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ShipFilter that = (ShipFilter) o;
+        return Objects.equals(name, that.name) &&
+                Objects.equals(planet, that.planet) &&
+                shipType == that.shipType &&
+                Objects.equals(after, that.after) &&
+                Objects.equals(before, that.before) &&
+                Objects.equals(isUsed, that.isUsed) &&
+                Objects.equals(minSpeed, that.minSpeed) &&
+                Objects.equals(maxSpeed, that.maxSpeed) &&
+                Objects.equals(minCrewSize, that.minCrewSize) &&
+                Objects.equals(maxCrewSize, that.maxCrewSize) &&
+                Objects.equals(minRating, that.minRating) &&
+                Objects.equals(maxRating, that.maxRating);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    /**
+     * Local midnight starting the day of {@code millis}, the value a DATE column reads back as.
+     */
+    public static long dayOf(long millis) {
+        return startOfDay(millis).getTimeInMillis();
+    }
+
+    private static Calendar startOfDay(long millis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(millis);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        return cal;
+    }
+}
@@ -1,17 +1,77 @@
 package com.space.model;
 
-import java.util.Calendar;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
 
 public class ShipUtils {
-    public static Double rate(Ship ship) {
-        double speed = ship.getSpeed();
-        double k = ship.getUsed() ? 0.5d : 1.0d;
 
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(ship.getProdDate());
-        double y1 = cal.get(Calendar.YEAR);
+    public static final int CURRENT_YEAR = 3019;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final TimeZone ZONE = TimeZone.getDefault();
+    private static final long MILLIS_PER_DAY = 86_400_000L;
 
-        double result = (80 * speed * k) / (3019 - y1 + 1);
+    public static Double rate(Ship ship) {
+        return rate(ship.getSpeed(), ship.getUsed(), yearOf(ship.getProdDate().getTime()));
+    }
+
+    public static double rate(double speed, boolean used, int prodYear) {
+        double k = used ? 0.5d : 1.0d;
+        double result = (80 * speed * k) / (CURRENT_YEAR - prodYear + 1);
         return (double) Math.round(result * 100) / 100;
     }
+
+    /**
+     * Year of the instant in the default time zone, as Calendar would report it, without allocating one.
+     */
+    public static int yearOf(long millis) {
+        long days = Math.floorDiv(millis + ZONE.getOffset(millis), MILLIS_PER_DAY);
+
+        // civil-from-days over 400-year eras starting on March 1st
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long year = yearOfEra + era * 400;
+        return (int) (monthIndex < 10 ? year : year + 1);
+    }
+
+    public static Ship copy(Ship ship) {
+        Ship copy = new Ship();
+        copy.setId(ship.getId());
+        copy.setName(ship.getName());
+        copy.setPlanet(ship.getPlanet());
+        copy.setShipType(ship.getShipType());
+        copy.setProdDate(ship.getProdDate());
+        copy.setUsed(ship.getUsed());
+        copy.setSpeed(ship.getSpeed());
+        copy.setCrewSize(ship.getCrewSize());
+        copy.setRating(ship.getRating());
+        return copy;
+    }
+
+    public static Set<String> changedFields(Ship oldShip, Ship newShip) {
+        Set<String> fields = new HashSet<>();
+        if (!Objects.equals(oldShip.getName(), newShip.getName())) fields.add("name");
+        if (!Objects.equals(oldShip.getPlanet(), newShip.getPlanet())) fields.add("planet");
+        if (oldShip.getShipType() != newShip.getShipType()) fields.add("shipType");
+        if (!Objects.equals(oldShip.getProdDate(), newShip.getProdDate())) fields.add("prodDate");
+        if (!Objects.equals(oldShip.getUsed(), newShip.getUsed())) fields.add("isUsed");
+        if (!Objects.equals(oldShip.getSpeed(), newShip.getSpeed())) fields.add("speed");
+        if (!Objects.equals(oldShip.getCrewSize(), newShip.getCrewSize())) fields.add("crewSize");
+        if (!Objects.equals(oldShip.getRating(), newShip.getRating())) fields.add("rating");
+        return fields;
+    }
+
+    /**
+     * Folds case and accents. Matching stays case-sensitive, only the text index folds, so its
+     * candidates are a superset of the matches whatever the collation.
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
 }
@@ -2,8 +2,18 @@ package com.space.repository;
 
 import com.space.model.Ship;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface ShipRepository extends JpaRepository<Ship, Long> {
+public interface ShipRepository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship>, ShipRepositoryCustom {
+
+    @Transactional
+    @Modifying
+    @Query("delete from Ship s where s.id = :id")
+    int deleteShipById(@Param("id") Long id);
 }
@@ -0,0 +1,34 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ShipRepositoryCustom {
+
+    List<Ship> findPage(Specification<Ship> spec, Pageable pageable);
+
+    /**
+     * Reads the page along with the number of all matches, in one statement where the database
+     * has window functions, otherwise with a separate count when the page does not tell the total.
+     */
+    Page<Ship> findPageWithTotal(Specification<Ship> spec, Pageable pageable);
+
+    List<Long> findIds(Specification<Ship> spec, Sort sort, int limit);
+
+    /**
+     * Streams matching ships from a forward-only cursor, every row is detached once read.
+     * Has to be consumed and closed inside a transaction.
+     */
+    Stream<Ship> streamAll(Specification<Ship> spec, Sort sort);
+
+    /**
+     * Inserts the ships as one JDBC batch and assigns the generated ids back.
+     */
+    void insertBatch(List<Ship> ships);
+}
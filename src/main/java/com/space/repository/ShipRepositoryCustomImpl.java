@@ -0,0 +1,177 @@
+package com.space.repository;
+
+import com.space.config.WindowFunctions;
+import com.space.model.Ship;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ShipRepositoryCustomImpl implements ShipRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final boolean windowFunctions;
+
+    public ShipRepositoryCustomImpl(JdbcTemplate jdbcTemplate, @Value("${export.fetch-size}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.windowFunctions = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                WindowFunctions.isSupported(connection.getMetaData()));
+    }
+
+    @Override
+    public List<Ship> findPage(Specification<Ship> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(toOrders(pageable.getSort(), root, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public Page<Ship> findPageWithTotal(Specification<Ship> spec, Pageable pageable) {
+        if (!windowFunctions) {
+            return PageableExecutionUtils.getPage(findPage(spec, pageable), pageable, () -> count(spec));
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(root, cb.function(WindowFunctions.TOTAL_ROWS, Long.class))
+                .orderBy(toOrders(pageable.getSort(), root, cb));
+
+        List<Object[]> rows = entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        List<Ship> ships = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ships.add((Ship) row[0]);
+        }
+        if (rows.isEmpty()) {
+            // a page past the end carries no total
+            return PageableExecutionUtils.getPage(ships, pageable, () -> count(spec));
+        }
+        return new PageImpl<>(ships, pageable, (Long) rows.get(0)[1]);
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Ship> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id")).orderBy(toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Ship> streamAll(Specification<Ship> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(toOrders(sort, root, cb));
+
+        Stream<Ship> ships = entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+        return ships.peek(entityManager::detach);
+    }
+
+    private long count(Specification<Ship> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ship> root = query.from(Ship.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public void insertBatch(List<Ship> ships) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Ship ship : ships) {
+                    ps.setString(1, ship.getName());
+                    ps.setString(2, ship.getPlanet());
+                    ps.setString(3, ship.getShipType().name());
+                    ps.setDate(4, new java.sql.Date(ship.getProdDate().getTime()));
+                    ps.setBoolean(5, ship.getUsed());
+                    ps.setDouble(6, ship.getSpeed());
+                    ps.setInt(7, ship.getCrewSize());
+                    ps.setDouble(8, ship.getRating());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Ship ship : ships) {
+                        if (!keys.next()) break;
+                        ship.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
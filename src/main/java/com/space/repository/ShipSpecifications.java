@@ -0,0 +1,109 @@
+package com.space.repository;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipCursor;
+import com.space.model.ShipFilter;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public final class ShipSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ShipSpecifications() {
+    }
+
+    public static Specification<Ship> byFilter(ShipFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getName() != null) {
+                predicates.add(contains(cb, root, "name", filter.getName()));
+            }
+            if (filter.getPlanet() != null) {
+                predicates.add(contains(cb, root, "planet", filter.getPlanet()));
+            }
+            if (filter.getShipType() != null) {
+                predicates.add(cb.equal(root.get("shipType"), filter.getShipType()));
+            }
+            if (filter.getAfter() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Date>get("prodDate"), filter.getAfterDay()));
+            }
+            if (filter.getBefore() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Date>get("prodDate"), filter.getBeforeDay()));
+            }
+            if (filter.getUsed() != null) {
+                predicates.add(cb.equal(root.get("isUsed"), filter.getUsed()));
+            }
+            if (filter.getMinSpeed() != null) {
+                predicates.add(cb.ge(root.<Double>get("speed"), filter.getMinSpeed()));
+            }
+            if (filter.getMaxSpeed() != null) {
+                predicates.add(cb.le(root.<Double>get("speed"), filter.getMaxSpeed()));
+            }
+            if (filter.getMinCrewSize() != null) {
+                predicates.add(cb.ge(root.<Integer>get("crewSize"), filter.getMinCrewSize()));
+            }
+            if (filter.getMaxCrewSize() != null) {
+                predicates.add(cb.le(root.<Integer>get("crewSize"), filter.getMaxCrewSize()));
+            }
+            if (filter.getMinRating() != null) {
+                predicates.add(cb.ge(root.<Double>get("rating"), filter.getMinRating()));
+            }
+            if (filter.getMaxRating() != null) {
+                predicates.add(cb.le(root.<Double>get("rating"), filter.getMaxRating()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Ship> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty()
+                ? cb.disjunction()
+                : root.<Long>get(ShipOrder.ID.getFieldName()).in(ids);
+    }
+
+    public static Specification<Ship> after(ShipCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor.isFirst()) {
+                return null;
+            }
+            Path<Long> id = root.get(ShipOrder.ID.getFieldName());
+
+            switch (cursor.getOrder()) {
+                case SPEED:
+                case RATING:
+                    return seek(cb, root.<Double>get(cursor.getOrder().getFieldName()), (Double) cursor.getSortKey(), id, cursor.getId());
+                case DATE:
+                    return seek(cb, root.<Date>get(cursor.getOrder().getFieldName()), (Date) cursor.getSortKey(), id, cursor.getId());
+                default:
+                    return cb.greaterThan(id, cursor.getId());
+            }
+        };
+    }
+
+    // (sortKey, id) > (lastKey, lastId), spelled out because JPA has no row value comparison
+    private static <Y extends Comparable<? super Y>> Predicate seek(CriteriaBuilder cb, Path<Y> key, Y lastKey,
+                                                                    Path<Long> id, Long lastId) {
+        return cb.or(
+                cb.greaterThan(key, lastKey),
+                cb.and(cb.equal(key, lastKey), cb.greaterThan(id, lastId)));
+    }
+
+    private static Predicate contains(CriteriaBuilder cb, Root<Ship> root, String attribute, String value) {
+        String escaped = value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return cb.like(root.<String>get(attribute), "%" + escaped + "%", LIKE_ESCAPE);
+    }
+}
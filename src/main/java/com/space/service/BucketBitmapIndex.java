@@ -0,0 +1,74 @@
+package com.space.service;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Row bitmaps per fixed-width bucket of a numeric column. Values outside the covered span fall
+ * into the first or last bucket. A range resolves to the union of the buckets it spans, only
+ * the rows of the two edge buckets are checked against the exact bounds.
+ */
+class BucketBitmapIndex {
+
+    private final double origin;
+    private final double width;
+    private final RoaringBitmap[] buckets;
+
+    BucketBitmapIndex(double origin, double width, int count) {
+        this.origin = origin;
+        this.width = width;
+        this.buckets = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            buckets[i] = new RoaringBitmap();
+        }
+    }
+
+    void add(int row, double value) {
+        buckets[bucket(value)].add(row);
+    }
+
+    void remove(int row, double value) {
+        buckets[bucket(value)].remove(row);
+    }
+
+    void clear() {
+        for (RoaringBitmap bucket : buckets) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * @param values column value of a row, read for the rows of the edge buckets
+     * @return rows with a value within {@code [min, max]}, or {@code null} when both bounds are open
+     */
+    RoaringBitmap range(double min, double max, IntToDoubleFunction values) {
+        boolean openMin = min == Double.NEGATIVE_INFINITY;
+        boolean openMax = max == Double.POSITIVE_INFINITY;
+        if (openMin && openMax) return null;
+
+        RoaringBitmap result = new RoaringBitmap();
+        int from = openMin ? 0 : bucket(min);
+        int to = openMax ? buckets.length - 1 : bucket(max);
+        for (int b = from; b <= to; b++) {
+            if ((b == from && !openMin) || (b == to && !openMax)) {
+                buckets[b].forEach((int row) -> {
+                    double value = values.applyAsDouble(row);
+                    if (value >= min && value <= max) {
+                        result.add(row);
+                    }
+                });
+            } else {
+                result.or(buckets[b]);
+            }
+        }
+        return result;
+    }
+
+    private int bucket(double value) {
+        double bucket = Math.floor((value - origin) / width);
+        if (bucket < 0) return 0;
+        if (bucket >= buckets.length) return buckets.length - 1;
+        return (int) bucket;
+    }
+}
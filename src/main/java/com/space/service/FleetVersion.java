@@ -0,0 +1,46 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fleet-wide modification version: the startup time, so versions of an earlier run never match,
+ * and a counter bumped by every committed write. Read it before a query, not after, so a result
+ * is never labeled with a version newer than the data it saw.
+ */
+@Component
+@ManagedResource(objectName = "com.space:type=FleetVersion", description = "Fleet modification version")
+public class FleetVersion implements ShipChangeListener {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+
+    @ManagedAttribute(description = "Current fleet version")
+    public String getCurrent() {
+        return epoch + "." + counter.get();
+    }
+
+    @Override
+    public void shipCreated(Ship ship) {
+        counter.incrementAndGet();
+    }
+
+    @Override
+    public void shipUpdated(Ship oldShip, Ship newShip) {
+        counter.incrementAndGet();
+    }
+
+    @Override
+    public void shipDeleted(Long id) {
+        counter.incrementAndGet();
+    }
+
+    @Override
+    public void fleetChanged() {
+        counter.incrementAndGet();
+    }
+}
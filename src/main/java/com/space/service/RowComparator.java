@@ -0,0 +1,66 @@
+package com.space.service;
+
+/**
+ * Orders snapshot rows by their column values, without boxing row numbers or keys.
+ */
+@FunctionalInterface
+interface RowComparator {
+
+    int compare(int a, int b);
+
+    /**
+     * Sorts {@code rows[from..to]} in place, quicksort with insertion sort for short ranges.
+     */
+    static void sort(int[] rows, int from, int to, RowComparator order) {
+        while (from < to) {
+            if (to - from < 16) {
+                for (int i = from + 1; i <= to; i++) {
+                    int row = rows[i];
+                    int j = i - 1;
+                    while (j >= from && order.compare(rows[j], row) > 0) {
+                        rows[j + 1] = rows[j];
+                        j--;
+                    }
+                    rows[j + 1] = row;
+                }
+                return;
+            }
+            int pivot = rows[(from + to) >>> 1];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (order.compare(rows[i], pivot) < 0) i++;
+                while (order.compare(rows[j], pivot) > 0) j--;
+                if (i <= j) {
+                    int swap = rows[i];
+                    rows[i++] = rows[j];
+                    rows[j--] = swap;
+                }
+            }
+            // recurse into the smaller half to bound the stack
+            if (j - from < to - i) {
+                sort(rows, from, j, order);
+                from = i;
+            } else {
+                sort(rows, i, to, order);
+                to = j;
+            }
+        }
+    }
+
+    /**
+     * @return the first {@code limit} rows of the two sorted runs merged into one
+     */
+    static int[] merge(int[] left, int[] right, RowComparator order, int limit) {
+        int[] merged = new int[Math.min(limit, left.length + right.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (k < merged.length && i < left.length && j < right.length) {
+            merged[k++] = order.compare(left[i], right[j]) <= 0 ? left[i++] : right[j++];
+        }
+        while (k < merged.length && i < left.length) merged[k++] = left[i++];
+        while (k < merged.length && j < right.length) merged[k++] = right[j++];
+        return merged;
+    }
+}
@@ -0,0 +1,61 @@
+package com.space.service;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the {@code k} first rows offered in a {@link RowComparator} order: a bounded max-heap
+ * whose root is the last row kept, so selecting a page out of n rows costs O(n log k).
+ */
+class RowHeap {
+
+    private final int[] heap;
+    private final RowComparator order;
+    private int size;
+
+    RowHeap(int k, RowComparator order) {
+        this.heap = new int[k];
+        this.order = order;
+    }
+
+    void offer(int row) {
+        if (size < heap.length) {
+            heap[size] = row;
+            siftUp(size++);
+        } else if (heap.length > 0 && order.compare(row, heap[0]) < 0) {
+            heap[0] = row;
+            siftDown(0);
+        }
+    }
+
+    int[] toSortedArray() {
+        int[] rows = Arrays.copyOf(heap, size);
+        RowComparator.sort(rows, 0, size - 1, order);
+        return rows;
+    }
+
+    private void siftUp(int i) {
+        int row = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order.compare(heap[parent], row) >= 0) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = row;
+    }
+
+    private void siftDown(int i) {
+        int row = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.compare(row, heap[child]) >= 0) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = row;
+    }
+}
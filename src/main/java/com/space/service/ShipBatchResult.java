@@ -0,0 +1,53 @@
+package com.space.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ShipBatchResult {
+
+    private int received;
+    private int created;
+    private final List<ItemError> errors = new ArrayList<>();
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public List<ItemError> getErrors() {
+        return errors;
+    }
+
+    void received() {
+        received++;
+    }
+
+    void created(int count) {
+        created += count;
+    }
+
+    void failed(int index, String message) {
+        errors.add(new ItemError(index, message));
+    }
+
+    public static class ItemError {
+        private final int index;
+        private final String message;
+
+        ItemError(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
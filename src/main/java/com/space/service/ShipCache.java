@@ -0,0 +1,96 @@
+package com.space.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.space.model.Ship;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Component
+@ManagedResource(objectName = "com.space:type=ShipCache", description = "Ships read by id")
+public class ShipCache implements ShipChangeListener {
+
+    private final Cache<Long, Ship> cache;
+
+    public ShipCache(@Value("${cache.ships.maximum-size}") long maximumSize,
+                     @Value("${cache.ships.expire-after-write-seconds}") long expireAfterWriteSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached ship, or the one returned by {@code loader}; {@code null} results are not cached
+     */
+    public Ship get(Long id, Function<Long, Ship> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * @return the ships found, cached or loaded together by {@code loader} for the missing ids
+     */
+    public Map<Long, Ship> getAll(Collection<Long> ids, Function<Collection<Long>, Map<Long, Ship>> loader) {
+        return cache.getAll(ids, missing -> {
+            List<Long> keys = new ArrayList<>();
+            missing.forEach(keys::add);
+            return loader.apply(keys);
+        });
+    }
+
+    @Override
+    public void shipUpdated(Ship oldShip, Ship newShip) {
+        cache.invalidate(newShip.getId());
+    }
+
+    @Override
+    public void shipDeleted(Long id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void fleetChanged() {
+        cache.invalidateAll();
+    }
+
+    @ManagedAttribute(description = "Lookups served from the cache")
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @ManagedAttribute(description = "Lookups that went to the database")
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @ManagedAttribute(description = "Share of lookups served from the cache")
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    @ManagedAttribute(description = "Entries evicted by size or expiry")
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @ManagedAttribute(description = "Approximate number of cached ships")
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    @ManagedOperation(description = "Drop every cached ship")
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,21 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+public interface ShipChangeListener {
+
+    default void shipCreated(Ship ship) {
+    }
+
+    default void shipUpdated(Ship oldShip, Ship newShip) {
+    }
+
+    default void shipDeleted(Long id) {
+    }
+
+    /**
+     * Ships were changed in bulk or outside of {@link ShipService}, anything derived from them has to be rebuilt.
+     */
+    default void fleetChanged() {
+    }
+}
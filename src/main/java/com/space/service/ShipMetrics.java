@@ -0,0 +1,59 @@
+package com.space.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Service level meters: {@code ship.service} times each operation, {@code ship.rows.returned}
+ * and {@code ship.rows.scanned} compare what a listing returns with what had to be examined
+ * for it, by source (snapshot, database).
+ */
+@Component
+public class ShipMetrics {
+
+    private final MeterRegistry registry;
+
+    public ShipMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T time(String operation, Supplier<T> action) {
+        return timer(operation).record(action);
+    }
+
+    public void time(String operation, Runnable action) {
+        timer(operation).record(action);
+    }
+
+    public void returned(String operation, long rows) {
+        DistributionSummary.builder("ship.rows.returned")
+                .description("Ships returned by a service operation")
+                .tag("operation", operation)
+                .register(registry)
+                .record(rows);
+    }
+
+    public void scanned(String operation, String source, long rows) {
+        DistributionSummary.builder("ship.rows.scanned")
+                .description("Rows examined to answer a service operation")
+                .tag("operation", operation)
+                .tag("source", source)
+                .register(registry)
+                .record(rows);
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("ship.service")
+                .description("Time spent in ShipService operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+import java.util.List;
+
+public class ShipPage {
+
+    private final List<Ship> items;
+    private final long total;
+    private final int pageNumber;
+    private final int pageSize;
+
+    ShipPage(List<Ship> items, long total, int pageNumber, int pageSize) {
+        this.items = items;
+        this.total = total;
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+    }
+
+    public List<Ship> getItems() {
+        return items;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
@@ -0,0 +1,278 @@
+package com.space.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Matching ids and totals of listing queries, keyed on the filter and order.
+ * <p>
+ * Writes only drop the entries they can affect: a created ship drops the queries it matches,
+ * an update drops the queries that both restrict or sort by a changed field and match the ship
+ * before or after the change, a delete drops the queries that listed the ship.
+ * <p>
+ * Id lists are loaded off the request path, a miss is answered by the page query alone.
+ * Every invalidation bumps a generation, a load that overlapped one drops its result
+ * instead of putting back ids read before the write.
+ * <p>
+ * A maximum size of 0 disables the cache, every listing then goes to the database.
+ */
+@Component
+@ManagedResource(objectName = "com.space:type=ShipQueryCache", description = "Ship listing results by criteria")
+public class ShipQueryCache implements ShipChangeListener {
+
+    private final Cache<Key, Result> cache;
+    private final int maxIds;
+    private final boolean enabled;
+    private final TaskExecutor loader;
+    private final Set<Key> loading = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder invalidations = new LongAdder();
+
+    private static final Logger log = LoggerFactory.getLogger(ShipQueryCache.class);
+
+    public ShipQueryCache(@Value("${cache.queries.maximum-size}") long maximumSize,
+                          @Value("${cache.queries.expire-after-write-seconds}") long expireAfterWriteSeconds,
+                          @Value("${cache.queries.max-ids}") int maxIds,
+                          @Qualifier("queryCacheLoader") TaskExecutor loader) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.maxIds = maxIds;
+        this.enabled = maximumSize > 0;
+        this.loader = loader;
+    }
+
+    /**
+     * Longest id list kept for a query, larger results are cached by their total only.
+     */
+    public int getMaxIds() {
+        return maxIds;
+    }
+
+    /**
+     * @return the cached result of the query, or {@code null} after counting a miss
+     */
+    public Result get(ShipFilter filter, ShipOrder order) {
+        return cache.getIfPresent(new Key(filter, order));
+    }
+
+    /**
+     * Marks the start of a read whose result may be {@link #put} later.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a result read since {@code since}, unless a write may have changed it meanwhile.
+     */
+    public void put(ShipFilter filter, ShipOrder order, Result result, long since) {
+        if (!enabled) return;
+        Key key = new Key(filter, order);
+        cache.put(key, result);
+        // an invalidation between the read and the put may have missed the entry
+        if (generation.get() != since) {
+            cache.asMap().remove(key, result);
+        }
+    }
+
+    /**
+     * Loads the result of the query in the background, unless it is cached or already loading.
+     */
+    public void loadLater(ShipFilter filter, ShipOrder order, Supplier<Result> query) {
+        if (!enabled) return;
+        Key key = new Key(filter, order);
+        if (cache.asMap().containsKey(key) || !loading.add(key)) return;
+        try {
+            loader.execute(() -> {
+                try {
+                    long since = generation.get();
+                    put(filter, order, query.get(), since);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to load ship query {}", filter, e);
+                } finally {
+                    loading.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // the next miss tries again
+            loading.remove(key);
+        }
+    }
+
+    /**
+     * @return a cached result of the filter in whatever order it was listed, or {@code null}
+     */
+    public Result getAnyOrder(ShipFilter filter) {
+        for (ShipOrder order : ShipOrder.values()) {
+            // read through the map view, probing the other orders is not a miss
+            Result result = cache.asMap().get(new Key(filter, order));
+            if (result != null) return result;
+        }
+        return null;
+    }
+
+    @Override
+    public void shipCreated(Ship ship) {
+        invalidateIf((key, result) -> key.filter.matches(ship));
+    }
+
+    @Override
+    public void shipUpdated(Ship oldShip, Ship newShip) {
+        Set<String> changed = ShipUtils.changedFields(oldShip, newShip);
+        if (changed.isEmpty()) return;
+
+        invalidateIf((key, result) -> key.dependsOn(changed)
+                && (key.filter.matches(oldShip) || key.filter.matches(newShip)));
+    }
+
+    @Override
+    public void shipDeleted(Long id) {
+        invalidateIf((key, result) -> result.mayContain(id));
+    }
+
+    @Override
+    public void fleetChanged() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @ManagedAttribute(description = "Listings served from the cache")
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    @ManagedAttribute(description = "Listings that queried the database")
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @ManagedAttribute(description = "Entries evicted by size or expiry")
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @ManagedAttribute(description = "Entries dropped by writes")
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    @ManagedAttribute(description = "Queries being loaded in the background")
+    public int getPendingLoads() {
+        return loading.size();
+    }
+
+    @ManagedAttribute(description = "Approximate number of cached queries")
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    @ManagedOperation(description = "Drop every cached query")
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private void invalidateIf(BiPredicate<Key, Result> stale) {
+        generation.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> {
+            boolean remove = stale.test(entry.getKey(), entry.getValue());
+            if (remove) invalidations.increment();
+            return remove;
+        });
+    }
+
+    private static final class Key {
+        private final ShipFilter filter;
+        private final ShipOrder order;
+        private final Set<String> fields;
+
+        private Key(ShipFilter filter, ShipOrder order) {
+            this.filter = filter;
+            this.order = order == null ? ShipOrder.ID : order;
+            this.fields = filter.getFields();
+            this.fields.add(this.order.getFieldName());
+        }
+
+        private boolean dependsOn(Set<String> changed) {
+            return !Collections.disjoint(fields, changed);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return filter.equals(key.filter) && order == key.order;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(filter, order);
+        }
+    }
+
+    public static final class Result {
+        private final long[] ids;
+        private final long total;
+
+        private Result(long[] ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public static Result ofIds(List<Long> ids) {
+            return new Result(ids.stream().mapToLong(Long::longValue).toArray(), ids.size());
+        }
+
+        public static Result ofTotal(long total) {
+            return new Result(null, total);
+        }
+
+        public boolean hasIds() {
+            return ids != null;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long[] page(int pageNumber, int pageSize) {
+            long from = (long) pageNumber * pageSize;
+            if (from >= ids.length) return new long[0];
+            return Arrays.copyOfRange(ids, (int) from, (int) Math.min(from + pageSize, ids.length));
+        }
+
+        private boolean mayContain(long id) {
+            if (ids == null) return true;
+            for (long candidate : ids) {
+                if (candidate == id) return true;
+            }
+            return false;
+        }
+    }
+}
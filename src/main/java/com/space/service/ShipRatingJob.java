@@ -0,0 +1,158 @@
+package com.space.service;
+
+import com.space.model.ShipUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Recomputes the rating of the whole fleet, e.g. after {@link ShipUtils#CURRENT_YEAR} moves.
+ * The table is walked by id in chunks of {@code batch.ships.size}, each chunk reading rows into
+ * primitive arrays and writing the changed ratings back as one JDBC batch in its own transaction.
+ * Rows without a production date have no rating to compute and are skipped.
+ */
+@Component
+@ManagedResource(objectName = "com.space:type=ShipRatingJob", description = "Fleet rating recomputation")
+public class ShipRatingJob {
+
+    private static final String SELECT_SQL = "SELECT id, prodDate, isUsed, speed, rating FROM ship WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL = "UPDATE ship SET rating = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<ShipChangeListener> listeners;
+    private final int chunkSize;
+
+    private volatile long lastScanned;
+    private volatile long lastUpdated;
+    private volatile long lastSkipped;
+    private volatile long lastDurationMs;
+
+    public ShipRatingJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         List<ShipChangeListener> listeners, @Value("${batch.ships.size}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.listeners = listeners;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return the number of ships whose rating changed
+     */
+    @ManagedOperation(description = "Recompute ratings of all ships, returns the number of ships updated")
+    public synchronized long recalculate() {
+        long start = System.currentTimeMillis();
+        Chunk chunk = new Chunk(chunkSize);
+        long scanned = 0;
+        long updated = 0;
+        long skipped = 0;
+
+        long afterId = 0;
+        do {
+            chunk.clear();
+            long from = afterId;
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.query(SELECT_SQL, chunk::read, from, chunkSize);
+                if (chunk.changed > 0) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, chunk);
+                }
+                return null;
+            });
+            scanned += chunk.read;
+            updated += chunk.changed;
+            skipped += chunk.skipped;
+            afterId = chunk.lastId;
+        } while (chunk.read == chunkSize);
+
+        if (updated > 0) {
+            listeners.forEach(ShipChangeListener::fleetChanged);
+        }
+        lastScanned = scanned;
+        lastUpdated = updated;
+        lastSkipped = skipped;
+        lastDurationMs = System.currentTimeMillis() - start;
+        return updated;
+    }
+
+    @ManagedAttribute(description = "Ships read by the last run")
+    public long getLastScanned() {
+        return lastScanned;
+    }
+
+    @ManagedAttribute(description = "Ships updated by the last run")
+    public long getLastUpdated() {
+        return lastUpdated;
+    }
+
+    @ManagedAttribute(description = "Ships without a production date skipped by the last run")
+    public long getLastSkipped() {
+        return lastSkipped;
+    }
+
+    @ManagedAttribute(description = "Duration of the last run in milliseconds")
+    public long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    private static class Chunk implements BatchPreparedStatementSetter {
+        private final long[] ids;
+        private final double[] ratings;
+        private int read;
+        private int changed;
+        private int skipped;
+        private long lastId;
+
+        Chunk(int size) {
+            ids = new long[size];
+            ratings = new double[size];
+        }
+
+        void clear() {
+            read = 0;
+            changed = 0;
+            skipped = 0;
+        }
+
+        void read(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            Date prodDate = rs.getDate(2);
+            lastId = id;
+            read++;
+            if (prodDate == null) {
+                skipped++;
+                return;
+            }
+            int year = ShipUtils.yearOf(prodDate.getTime());
+            double rating = ShipUtils.rate(rs.getDouble(4), rs.getBoolean(3), year);
+
+            if (rating != rs.getDouble(5)) {
+                ids[changed] = id;
+                ratings[changed] = rating;
+                changed++;
+            }
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            ps.setDouble(1, ratings[i]);
+            ps.setLong(2, ids[i]);
+        }
+
+        @Override
+        public int getBatchSize() {
+            return changed;
+        }
+    }
+}
@@ -2,31 +2,28 @@ package com.space.service;
 
 import com.space.controller.ShipOrder;
 import com.space.model.Ship;
-import com.space.model.ShipType;
+import com.space.model.ShipCursor;
+import com.space.model.ShipFilter;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ShipService {
-    List<Ship> getAllShips(
-            String name,
-            String planet,
-            ShipType shipType,
-            Long after,
-            Long before,
-            Boolean isUsed,
-            Double minSpeed,
-            Double maxSpeed,
-            Integer minCrewSize,
-            Integer maxCrewSize,
-            Double minRating,
-            Double maxRating,
-            ShipOrder order
-    );
-
-    List<Ship> getAllShipsByPage(Integer pageNumber, Integer pageSize, List<Ship> ships);
+    List<Ship> getAllShipsByPage(ShipFilter filter, ShipOrder order, Integer pageNumber, Integer pageSize);
+
+    List<Ship> getAllShipsAfter(ShipFilter filter, ShipCursor cursor, Integer pageSize);
+
+    long getShipsCount(ShipFilter filter);
+
+    ShipPage getShipPage(ShipFilter filter, ShipOrder order, Integer pageNumber, Integer pageSize);
+
+    void exportShips(ShipFilter filter, ShipOrder order, Consumer<Ship> sink);
 
     Ship createNewShip(Ship newShip);
 
+    ShipBatchResult createShips(Iterator<Ship> ships);
+
     Ship updateShipById(Ship newCharacteristics, Long id);
 
     void deleteShipById(Long id);
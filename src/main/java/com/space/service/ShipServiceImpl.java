@@ -4,104 +4,293 @@ import com.space.controller.ShipOrder;
 import com.space.exceptions.PageNotFoundException;
 import com.space.exceptions.WrongRequestException;
 import com.space.model.Ship;
-import com.space.model.ShipType;
+import com.space.model.ShipCursor;
+import com.space.model.ShipFilter;
 import com.space.model.ShipUtils;
 import com.space.repository.ShipRepository;
+import com.space.repository.ShipSpecifications;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.space.service.ShipValidator.*;
 
 @Service
 public class ShipServiceImpl implements ShipService {
 
-    private final ShipRepository shipRepository;
+    private static final int MAX_TEXT_INDEX_CANDIDATES = 1000;
 
-    public ShipServiceImpl(ShipRepository shipRepository) {
+    private final ShipRepository shipRepository;
+    private final ShipTextIndex textIndex;
+    private final ShipCache shipCache;
+    private final ShipQueryCache queryCache;
+    private final ShipSnapshot snapshot;
+    private final ShipMetrics metrics;
+    private final List<ShipChangeListener> listeners;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ShipServiceImpl(ShipRepository shipRepository, ShipTextIndex textIndex, ShipCache shipCache,
+                           ShipQueryCache queryCache, ShipSnapshot snapshot, ShipMetrics metrics,
+                           List<ShipChangeListener> listeners,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${batch.ships.size}") int batchSize) {
         this.shipRepository = shipRepository;
+        this.textIndex = textIndex;
+        this.shipCache = shipCache;
+        this.queryCache = queryCache;
+        this.snapshot = snapshot;
+        this.metrics = metrics;
+        this.listeners = listeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
     }
 
     @Override
-    public List<Ship> getAllShips(
-            String name,
-            String planet,
-            ShipType shipType,
-            Long after,
-            Long before,
-            Boolean isUsed,
-            Double minSpeed,
-            Double maxSpeed,
-            Integer minCrewSize,
-            Integer maxCrewSize,
-            Double minRating,
-            Double maxRating,
-            ShipOrder order
-    ) {
-        List<Ship> allShips = shipRepository.findAll();
-
-        allShips = filter(name, s -> s.getName().contains(name), allShips);
-        allShips = filter(planet, s -> s.getPlanet().contains(planet), allShips);
-        allShips = filter(shipType, s -> s.getShipType().equals(shipType), allShips);
-        allShips = filter(after, ship -> ship.getProdDate().getTime() >= after, allShips);
-        allShips = filter(before, ship -> ship.getProdDate().getTime() <= before, allShips);
-        allShips = filter(isUsed, ship -> ship.getUsed() == isUsed, allShips);
-        allShips = filter(minSpeed, ship -> Double.compare(ship.getSpeed(), minSpeed) >= 0, allShips);
-        allShips = filter(maxSpeed, ship -> Double.compare(ship.getSpeed(), maxSpeed) <= 0, allShips);
-        allShips = filter(minCrewSize, ship -> ship.getCrewSize() >= minCrewSize, allShips);
-        allShips = filter(maxCrewSize, ship -> ship.getCrewSize() <= maxCrewSize, allShips);
-        allShips = filter(minRating, ship -> Double.compare(ship.getRating(), minRating) >= 0, allShips);
-        allShips = filter(maxRating, ship -> Double.compare(ship.getRating(), maxRating) <= 0, allShips);
-
-        if (order != null) {
-            allShips.sort(getComparator(order));
-        }
-        return allShips;
+    public List<Ship> getAllShipsByPage(ShipFilter filter, ShipOrder order, Integer pageNumber, Integer pageSize) {
+        List<Ship> ships = metrics.time("page", () -> listPage(filter, order, pageNumber, pageSize));
+        metrics.returned("page", ships.size());
+        return ships;
     }
 
     @Override
-    public List<Ship> getAllShipsByPage(Integer pageNumber, Integer pageSize, List<Ship> ships) {
-        int skip = pageNumber * pageSize;
-        List<Ship> result = new ArrayList<>();
-        for (int i = skip; i < Math.min(skip + pageSize, ships.size()); i++) {
-            result.add(ships.get(i));
-        }
-        return result;
+    public List<Ship> getAllShipsAfter(ShipFilter filter, ShipCursor cursor, Integer pageSize) {
+        List<Ship> ships = metrics.time("after", () -> listAfter(filter, cursor, pageSize));
+        metrics.returned("after", ships.size());
+        return ships;
     }
 
     @Override
-    public Ship createNewShip(Ship newShip) {
+    public long getShipsCount(ShipFilter filter) {
+        return metrics.time("count", () -> count(filter));
+    }
 
-        String name = newShip.getName(), planet = newShip.getPlanet();
-        ShipType shipType = newShip.getShipType();
-        Date prodDate = newShip.getProdDate();
-        Double speed = newShip.getSpeed();
-        Integer crewSize = newShip.getCrewSize();
+    @Override
+    public ShipPage getShipPage(ShipFilter filter, ShipOrder order, Integer pageNumber, Integer pageSize) {
+        ShipPage page = metrics.time("page-total", () -> listPageWithTotal(filter, order, pageNumber, pageSize));
+        metrics.returned("page-total", page.getItems().size());
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportShips(ShipFilter filter, ShipOrder order, Consumer<Ship> sink) {
+        long[] exported = {0};
+        metrics.time("export", () -> {
+            try (Stream<Ship> ships = shipRepository.streamAll(getSpecification(filter), getSort(order))) {
+                ships.forEach(ship -> {
+                    sink.accept(ship);
+                    exported[0]++;
+                });
+            }
+        });
+        metrics.returned("export", exported[0]);
+        metrics.scanned("export", "database", exported[0]);
+    }
+
+    private List<Ship> listPage(ShipFilter filter, ShipOrder order, Integer pageNumber, Integer pageSize) {
+        checkPage(pageNumber, pageSize);
+        if (pageSize == 0) {
+            return new ArrayList<>();
+        }
+        List<Ship> fromSnapshot = snapshot.page(filter, order, pageNumber, pageSize);
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        ShipQueryCache.Result result = queryCache.get(filter, order);
+        if (result != null && result.hasIds()) {
+            return getShipsByIds(result.page(pageNumber, pageSize));
+        }
 
-        if (name == null || planet == null || shipType == null || prodDate == null || speed == null || crewSize == null) {
+        long since = queryCache.generation();
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, getSort(order));
+        List<Ship> ships = shipRepository.findPage(getSpecification(filter), pageable);
+        metrics.scanned("page", "database", ships.size());
+        if (result == null) {
+            cacheAfterPage(filter, order, pageNumber, pageSize, ships, since);
+        }
+        return ships;
+    }
+
+    private List<Ship> listAfter(ShipFilter filter, ShipCursor cursor, Integer pageSize) {
+        if (pageSize < 0) {
             throw new WrongRequestException();
         }
-        checkStringValue(name);
-        checkStringValue(planet);
-        checkSpeed(speed);
-        checkCrewSize(crewSize);
+        if (pageSize == 0) {
+            return new ArrayList<>();
+        }
+        List<Ship> fromSnapshot = snapshot.after(filter, cursor, pageSize);
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        Specification<Ship> spec = getSpecification(filter).and(ShipSpecifications.after(cursor));
+        List<Ship> ships = shipRepository.findPage(spec, PageRequest.of(0, pageSize, getSort(cursor.getOrder())));
+        metrics.scanned("after", "database", ships.size());
+        return ships;
+    }
+
+    private ShipPage listPageWithTotal(ShipFilter filter, ShipOrder order, Integer pageNumber, Integer pageSize) {
+        checkPage(pageNumber, pageSize);
+        ShipPage fromSnapshot = snapshot.pageWithTotal(filter, order, pageNumber, pageSize);
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        Specification<Ship> spec = getSpecification(filter);
+        ShipQueryCache.Result result = queryCache.get(filter, order);
+        if (result != null) {
+            List<Ship> ships;
+            if (pageSize == 0) {
+                ships = new ArrayList<>();
+            } else if (result.hasIds()) {
+                ships = getShipsByIds(result.page(pageNumber, pageSize));
+            } else {
+                ships = shipRepository.findPage(spec, PageRequest.of(pageNumber, pageSize, getSort(order)));
+                metrics.scanned("page-total", "database", ships.size());
+            }
+            return new ShipPage(ships, result.getTotal(), pageNumber, pageSize);
+        }
+
+        long since = queryCache.generation();
+        List<Ship> ships;
+        long total;
+        if (pageSize == 0) {
+            ships = new ArrayList<>();
+            total = shipRepository.count(spec);
+        } else {
+            Page<Ship> page = shipRepository.findPageWithTotal(spec, PageRequest.of(pageNumber, pageSize, getSort(order)));
+            ships = page.getContent();
+            total = page.getTotalElements();
+        }
+        metrics.scanned("page-total", "database", total);
+        if (pageNumber == 0 && ships.size() == total && total <= queryCache.getMaxIds()) {
+            queryCache.put(filter, order, ShipQueryCache.Result.ofIds(idsOf(ships)), since);
+        } else {
+            cacheAfterCount(filter, order, total, since);
+        }
+        return new ShipPage(ships, total, pageNumber, pageSize);
+    }
+
+    private long count(ShipFilter filter) {
+        Long fromSnapshot = snapshot.count(filter);
+        if (fromSnapshot != null) {
+            return fromSnapshot;
+        }
+        ShipQueryCache.Result result = queryCache.getAnyOrder(filter);
+        if (result != null) {
+            return result.getTotal();
+        }
+
+        long since = queryCache.generation();
+        long total = shipRepository.count(getSpecification(filter));
+        metrics.scanned("count", "database", total);
+        cacheAfterCount(filter, null, total, since);
+        return total;
+    }
+
+    /**
+     * A first page shorter than the page size is the whole result, anything else has its ids
+     * loaded in the background so the miss costs the page query only.
+     */
+    private void cacheAfterPage(ShipFilter filter, ShipOrder order, int pageNumber, int pageSize,
+                                List<Ship> ships, long since) {
+        if (pageNumber == 0 && ships.size() < pageSize && ships.size() <= queryCache.getMaxIds()) {
+            queryCache.put(filter, order, ShipQueryCache.Result.ofIds(idsOf(ships)), since);
+        } else {
+            queryCache.loadLater(filter, order, () -> loadQuery(filter, order));
+        }
+    }
+
+    private void cacheAfterCount(ShipFilter filter, ShipOrder order, long total, long since) {
+        if (total > queryCache.getMaxIds()) {
+            queryCache.put(filter, order, ShipQueryCache.Result.ofTotal(total), since);
+        } else {
+            queryCache.loadLater(filter, order, () -> loadQuery(filter, order));
+        }
+    }
+
+    @Override
+    public Ship createNewShip(Ship newShip) {
+        checkNewShip(newShip);
 
-        Date date = newShip.getProdDate();
-        checkDate(date);
         newShip.setUsed(newShip.getUsed() != null && newShip.getUsed());
         newShip.setRating(ShipUtils.rate(newShip));
-        return shipRepository.save(newShip);
+
+        Ship ship = shipRepository.save(newShip);
+        afterCommit(() -> listeners.forEach(l -> l.shipCreated(ship)));
+        return ship;
     }
 
     @Override
-    public Ship updateShipById(Ship newShip, Long id) {
-        checkId(id);
+    public ShipBatchResult createShips(Iterator<Ship> ships) {
+        ShipBatchResult result = new ShipBatchResult();
+        List<Ship> batch = new ArrayList<>(batchSize);
+        List<Integer> positions = new ArrayList<>(batchSize);
+
+        for (int index = 0; ; index++) {
+            Ship ship;
+            try {
+                if (!ships.hasNext()) break;
+                ship = ships.next();
+            } catch (WrongRequestException e) {
+                result.received();
+                result.failed(index, e.getMessage());
+                continue;
+            } catch (RuntimeException e) {
+                result.failed(index, "malformed input, the rest of it was skipped");
+                break;
+            }
+            result.received();
+
+            try {
+                if (ship == null) {
+                    throw new WrongRequestException("ship expected");
+                }
+                checkNewShip(ship);
+            } catch (WrongRequestException e) {
+                result.failed(index, e.getMessage());
+                continue;
+            }
+            ship.setId(null);
+            ship.setUsed(ship.getUsed() != null && ship.getUsed());
+            ship.setRating(ShipUtils.rate(ship));
+            batch.add(ship);
+            positions.add(index);
+
+            if (batch.size() == batchSize) {
+                insertBatch(batch, positions, result);
+            }
+        }
+        insertBatch(batch, positions, result);
 
-        if (!shipRepository.existsById(id)) {
-            throw new PageNotFoundException();
+        // small imports are announced ship by ship, larger ones have every listener reload once
+        if (result.getCreated() > batchSize) {
+            listeners.forEach(ShipChangeListener::fleetChanged);
         }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public Ship updateShipById(Ship newShip, Long id) {
+        checkId(id);
 
-        Ship oldShip = getShipById(id);
+        Ship oldShip = shipRepository.findById(id).orElseThrow(PageNotFoundException::new);
+        Ship before = ShipUtils.copy(oldShip);
         String name = newShip.getName();
 
         if (name != null) {
@@ -143,6 +332,8 @@ public class ShipServiceImpl implements ShipService {
             oldShip.setCrewSize(crewSize);
         }
         oldShip.setRating(ShipUtils.rate(oldShip));
+
+        afterCommit(() -> listeners.forEach(l -> l.shipUpdated(before, oldShip)));
         return oldShip;
     }
 
@@ -150,72 +341,136 @@ public class ShipServiceImpl implements ShipService {
     public void deleteShipById(Long id) {
         checkId(id);
 
-        if (!shipRepository.existsById(id)) {
+        if (shipRepository.deleteShipById(id) == 0) {
             throw new PageNotFoundException();
         }
-        shipRepository.deleteById(id);
+        afterCommit(() -> listeners.forEach(l -> l.shipDeleted(id)));
     }
 
     @Override
     public Ship getShipById(Long id) {
         checkId(id);
 
-        if (!shipRepository.existsById(id)) {
+        Ship ship = shipCache.get(id, key -> shipRepository.findById(key).orElse(null));
+        if (ship == null) {
             throw new PageNotFoundException();
         }
-        return shipRepository.findById(id).orElse(null);
+        return ship;
     }
 
-    private void checkId(Long id) {
-        if (id == null || id <= 0) {
-            throw new WrongRequestException();
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
-    private void checkStringValue(String value) {
-        if (value.length() > 50 || value.isEmpty()) {
-            throw new WrongRequestException();
+    private void insertBatch(List<Ship> batch, List<Integer> positions, ShipBatchResult result) {
+        if (batch.isEmpty()) return;
+
+        List<Ship> inserted = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.execute(status -> {
+                shipRepository.insertBatch(batch);
+                return null;
+            });
+            result.created(batch.size());
+            inserted.addAll(batch);
+        } catch (DataAccessException e) {
+            // find the rows the database refuses by retrying them one by one
+            for (int i = 0; i < batch.size(); i++) {
+                List<Ship> single = Collections.singletonList(batch.get(i));
+                try {
+                    transactionTemplate.execute(status -> {
+                        shipRepository.insertBatch(single);
+                        return null;
+                    });
+                    result.created(1);
+                    inserted.add(batch.get(i));
+                } catch (DataAccessException rowError) {
+                    result.failed(positions.get(i), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        if (result.getCreated() <= batchSize) {
+            inserted.forEach(ship -> listeners.forEach(l -> l.shipCreated(ship)));
         }
+        batch.clear();
+        positions.clear();
     }
 
-    private void checkDate(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        int prodDate = cal.get(Calendar.YEAR);
+    private ShipQueryCache.Result loadQuery(ShipFilter filter, ShipOrder order) {
+        Specification<Ship> spec = getSpecification(filter);
+        List<Long> ids = shipRepository.findIds(spec, getSort(order), queryCache.getMaxIds() + 1);
 
-        if (prodDate < 2800 || prodDate > 3019) {
-            throw new WrongRequestException();
+        if (ids.size() <= queryCache.getMaxIds()) {
+            metrics.scanned("query", "database", ids.size());
+            return ShipQueryCache.Result.ofIds(ids);
         }
+        long total = shipRepository.count(spec);
+        metrics.scanned("query", "database", total);
+        return ShipQueryCache.Result.ofTotal(total);
     }
 
-    private void checkSpeed(Double speed) {
-        if (speed < 0.01d || speed > 0.99d) {
+    /**
+     * The offset of the page has to fit the int the JPA query takes.
+     */
+    private static void checkPage(Integer pageNumber, Integer pageSize) {
+        if (pageNumber < 0 || pageSize < 0 || (long) pageNumber * pageSize > Integer.MAX_VALUE) {
             throw new WrongRequestException();
         }
     }
 
-    private void checkCrewSize(Integer crewSize) {
-        if (crewSize < 1 || crewSize > 9999) {
-            throw new WrongRequestException();
+    private static List<Long> idsOf(List<Ship> ships) {
+        List<Long> ids = new ArrayList<>(ships.size());
+        ships.forEach(ship -> ids.add(ship.getId()));
+        return ids;
+    }
+
+    private List<Ship> getShipsByIds(long[] ids) {
+        List<Long> keys = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            keys.add(id);
         }
+        Map<Long, Ship> ships = shipCache.getAll(keys, missing -> {
+            Map<Long, Ship> found = new HashMap<>();
+            shipRepository.findAllById(missing).forEach(ship -> found.put(ship.getId(), ship));
+            return found;
+        });
+
+        List<Ship> result = new ArrayList<>(keys.size());
+        for (Long id : keys) {
+            Ship ship = ships.get(id);
+            if (ship != null) {
+                result.add(ship);
+            }
+        }
+        return result;
     }
 
-    private <T, U> List<T> filter(U value, Predicate<T> predicate, List<T> list) {
-        if (value == null) return list;
-        return list.stream().filter(predicate).collect(Collectors.toList());
+    private Specification<Ship> getSpecification(ShipFilter filter) {
+        Specification<Ship> spec = ShipSpecifications.byFilter(filter);
+        Roaring64NavigableMap candidates = textIndex.candidates(filter);
+
+        if (candidates != null && candidates.getLongCardinality() <= MAX_TEXT_INDEX_CANDIDATES) {
+            List<Long> ids = new ArrayList<>((int) candidates.getLongCardinality());
+            candidates.forEach(ids::add);
+            spec = spec.and(ShipSpecifications.idIn(ids));
+        }
+        return spec;
     }
 
-    private Comparator<Ship> getComparator(ShipOrder order) {
-        switch (order) {
-            case SPEED:
-                return Comparator.comparing(Ship::getSpeed);
-            case DATE:
-                return Comparator.comparing(Ship::getProdDate);
-            case RATING:
-                return Comparator.comparing(Ship::getRating);
-            default:
-                return Comparator.comparing(Ship::getId);
+    private Sort getSort(ShipOrder order) {
+        if (order == null || order == ShipOrder.ID) {
+            return Sort.by(ShipOrder.ID.getFieldName());
         }
+        return Sort.by(order.getFieldName()).and(Sort.by(ShipOrder.ID.getFieldName()));
     }
 
 }
@@ -0,0 +1,637 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipCursor;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.model.ShipUtils;
+import com.space.repository.ShipRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The whole fleet held as primitive columns, one row per ship, for listing and counting
+ * without the database.
+ * <p>
+ * Type, isUsed and bucketed prodDate, speed, crewSize and rating ranges are indexed by
+ * Roaring bitmaps, so a filter resolves to an AND of bitmaps and a count without text criteria
+ * is the cardinality of the result. Only the rows of the requested page are turned back into
+ * {@link Ship} objects. The snapshot is loaded when enabled, either by
+ * {@code snapshot.enabled} or over JMX, and then follows the service's change events. Events
+ * arriving while the table is read are recorded and replayed onto the loaded columns before they
+ * are swapped in.
+ */
+@Component
+@ManagedResource(objectName = "com.space:type=ShipSnapshot", description = "In-memory columnar copy of the fleet")
+public class ShipSnapshot implements ShipChangeListener, InitializingBean {
+
+    private static final ShipType[] TYPES = ShipType.values();
+    private static final int MIN_CAPACITY = 16;
+    private static final double FIRST_YEAR_DAY = ShipFilter.dayOf(new GregorianCalendar(2800, Calendar.JANUARY, 1).getTimeInMillis());
+    private static final double YEAR_MILLIS = 365.2425 * 86_400_000L;
+
+    private final ShipRepository shipRepository;
+    private final ShipMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean enabled;
+    private volatile int parallelThreshold;
+    private Columns columns;
+    // changes made during a load, null when none is running
+    private List<Consumer<Columns>> missed;
+
+    public ShipSnapshot(ShipRepository shipRepository, ShipMetrics metrics, PlatformTransactionManager transactionManager,
+                        @Value("${snapshot.enabled}") boolean enabled,
+                        @Value("${snapshot.parallel-threshold}") int parallelThreshold) {
+        this.shipRepository = shipRepository;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        fleetChanged();
+    }
+
+    @ManagedAttribute(description = "Whether listings are served from the snapshot")
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @ManagedAttribute
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        fleetChanged();
+    }
+
+    @ManagedAttribute(description = "Candidate rows from which a query is evaluated in parallel")
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @ManagedAttribute
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @ManagedAttribute(description = "Ships held in the snapshot")
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return columns == null ? 0 : columns.rowById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the requested page, or {@code null} when the snapshot is not loaded
+     */
+    public List<Ship> page(ShipFilter filter, ShipOrder order, int pageNumber, int pageSize) {
+        return select("page", filter, ShipCursor.first(order), (long) pageNumber * pageSize, pageSize);
+    }
+
+    /**
+     * @return the requested page with the number of all matching ships, both from the same state,
+     * or {@code null} when the snapshot is not loaded
+     */
+    public ShipPage pageWithTotal(ShipFilter filter, ShipOrder order, int pageNumber, int pageSize) {
+        lock.readLock().lock();
+        try {
+            if (columns == null) return null;
+            return new ShipPage(page(filter, order, pageNumber, pageSize), count(filter), pageNumber, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the page following {@code cursor}, or {@code null} when the snapshot is not loaded
+     */
+    public List<Ship> after(ShipFilter filter, ShipCursor cursor, int pageSize) {
+        return select("after", filter, cursor, 0, pageSize);
+    }
+
+    /**
+     * @return the number of matching ships, or {@code null} when the snapshot is not loaded
+     */
+    public Long count(ShipFilter filter) {
+        lock.readLock().lock();
+        try {
+            if (columns == null) return null;
+
+            Criteria criteria = new Criteria(filter);
+            RoaringBitmap candidates = criteria.candidates(columns);
+            metrics.scanned("count", "snapshot", criteria.hasText() ? candidates.getLongCardinality() : 0);
+            if (!criteria.hasText()) {
+                return candidates.getLongCardinality();
+            }
+            Columns snapshot = columns;
+            return (long) collect(snapshot, candidates, row -> criteria.matchesText(snapshot, row), null, Integer.MAX_VALUE).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipCreated(Ship ship) {
+        Ship created = ShipUtils.copy(ship);
+        apply(columns -> columns.put(created));
+    }
+
+    @Override
+    public void shipUpdated(Ship oldShip, Ship newShip) {
+        Ship updated = ShipUtils.copy(newShip);
+        apply(columns -> columns.put(updated));
+    }
+
+    @Override
+    public void shipDeleted(Long id) {
+        apply(columns -> columns.remove(id));
+    }
+
+    @Override
+    public synchronized void fleetChanged() {
+        setMissed(enabled ? new ArrayList<>() : null);
+        try {
+            Columns loaded = enabled ? load() : null;
+
+            lock.writeLock().lock();
+            try {
+                // changes are applied as upserts and removals, replaying one the load already saw does no harm
+                if (loaded != null) {
+                    missed.forEach(change -> change.accept(loaded));
+                }
+                columns = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            setMissed(null);
+        }
+    }
+
+    private void apply(Consumer<Columns> change) {
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                change.accept(columns);
+            }
+            if (missed != null) {
+                missed.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setMissed(List<Consumer<Columns>> changes) {
+        lock.writeLock().lock();
+        try {
+            missed = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Columns load() {
+        return transactionTemplate.execute(status -> {
+            Columns loaded = new Columns(MIN_CAPACITY);
+            try (Stream<Ship> ships = shipRepository.streamAll((root, query, cb) -> null, Sort.by(ShipOrder.ID.getFieldName()))) {
+                ships.forEach(loaded::append);
+            }
+            return loaded;
+        });
+    }
+
+    private List<Ship> select(String operation, ShipFilter filter, ShipCursor cursor, long offset, int pageSize) {
+        lock.readLock().lock();
+        try {
+            if (columns == null) return null;
+
+            Criteria criteria = new Criteria(filter);
+            Seek seek = new Seek(cursor);
+            Columns snapshot = columns;
+            RowComparator order = cursor.getOrder() == ShipOrder.ID && snapshot.sortedById
+                    ? null : comparator(snapshot, cursor.getOrder());
+            RoaringBitmap candidates = criteria.candidates(snapshot);
+            metrics.scanned(operation, "snapshot", candidates.getLongCardinality());
+            // a page past the candidates is empty, and no more rows than there are need collecting
+            if (offset >= candidates.getLongCardinality()) {
+                return new ArrayList<>();
+            }
+            int limit = (int) Math.min(candidates.getLongCardinality(), offset + pageSize);
+            int[] rows = collect(snapshot, candidates,
+                    row -> criteria.matchesText(snapshot, row) && seek.matches(snapshot, row), order, limit);
+
+            List<Ship> page = new ArrayList<>(pageSize);
+            for (long i = offset; i < rows.length && i < offset + pageSize; i++) {
+                page.add(columns.toShip(rows[(int) i]));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the first {@code limit} candidate rows accepted by {@code accept}, sorted by {@code order}
+     * unless it is null. Large candidate sets are split by row range into chunks evaluated and sorted
+     * on the common fork/join pool, the sorted runs are then merged pairwise, also in parallel.
+     */
+    private int[] collect(Columns columns, RoaringBitmap candidates, IntPredicate accept, RowComparator order, int limit) {
+        if (candidates.getCardinality() < parallelThreshold) {
+            return collectRange(candidates, 0, columns.size, accept, order, limit);
+        }
+        int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, columns.size));
+        int chunkSize = (columns.size + chunks - 1) / chunks;
+        List<int[]> runs = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> collectRange(candidates, chunk * chunkSize,
+                        Math.min(columns.size, (chunk + 1) * chunkSize), accept, order, limit))
+                .collect(Collectors.toList());
+
+        if (order == null) {
+            return runs.stream().flatMapToInt(IntStream::of).limit(limit).toArray();
+        }
+        while (runs.size() > 1) {
+            List<int[]> level = runs;
+            runs = IntStream.range(0, (level.size() + 1) / 2).parallel()
+                    .mapToObj(pair -> 2 * pair + 1 < level.size()
+                            ? RowComparator.merge(level.get(2 * pair), level.get(2 * pair + 1), order, limit)
+                            : level.get(2 * pair))
+                    .collect(Collectors.toList());
+        }
+        return runs.get(0);
+    }
+
+    private static int[] collectRange(RoaringBitmap candidates, int from, int to, IntPredicate accept,
+                                      RowComparator order, int limit) {
+        PeekableIntIterator it = candidates.getIntIterator();
+        it.advanceIfNeeded(from);
+        long inRange = candidates.rangeCardinality(from, to);
+
+        // a page near the start of a long result only needs its first rows in order, the heap
+        // never outgrows the rows of this range
+        if (order != null && limit < inRange / 2) {
+            RowHeap heap = new RowHeap(limit, order);
+            while (it.hasNext() && it.peekNext() < to) {
+                int row = it.next();
+                if (accept.test(row)) {
+                    heap.offer(row);
+                }
+            }
+            return heap.toSortedArray();
+        }
+
+        int[] rows = new int[MIN_CAPACITY];
+        int count = 0;
+        while (it.hasNext() && it.peekNext() < to && (order != null || count < limit)) {
+            int row = it.next();
+            if (accept.test(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = row;
+            }
+        }
+        if (order != null) {
+            RowComparator.sort(rows, 0, count - 1, order);
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    private static RowComparator comparator(Columns columns, ShipOrder order) {
+        long[] ids = columns.ids;
+        switch (order) {
+            case SPEED:
+                double[] speeds = columns.speeds;
+                return (a, b) -> {
+                    int result = Double.compare(speeds[a], speeds[b]);
+                    return result != 0 ? result : Long.compare(ids[a], ids[b]);
+                };
+            case RATING:
+                double[] ratings = columns.ratings;
+                return (a, b) -> {
+                    int result = Double.compare(ratings[a], ratings[b]);
+                    return result != 0 ? result : Long.compare(ids[a], ids[b]);
+                };
+            case DATE:
+                long[] prodDates = columns.prodDates;
+                return (a, b) -> {
+                    int result = Long.compare(prodDates[a], prodDates[b]);
+                    return result != 0 ? result : Long.compare(ids[a], ids[b]);
+                };
+            default:
+                return (a, b) -> Long.compare(ids[a], ids[b]);
+        }
+    }
+
+    private static class Columns {
+        private int size;
+        private long[] ids;
+        private String[] names;
+        private String[] planets;
+        private byte[] types;
+        private long[] prodDates;
+        private double[] speeds;
+        private int[] crewSizes;
+        private double[] ratings;
+        private final Map<Long, Integer> rowById = new HashMap<>();
+        private boolean sortedById = true;
+
+        private final RoaringBitmap live = new RoaringBitmap();
+        private final RoaringBitmap used = new RoaringBitmap();
+        private final RoaringBitmap unused = new RoaringBitmap();
+        private final RoaringBitmap[] typeRows = new RoaringBitmap[TYPES.length];
+        private final BucketBitmapIndex dayIndex = new BucketBitmapIndex(FIRST_YEAR_DAY, YEAR_MILLIS, 220);
+        private final BucketBitmapIndex speedIndex = new BucketBitmapIndex(0, 0.05, 20);
+        private final BucketBitmapIndex crewSizeIndex = new BucketBitmapIndex(0, 500, 20);
+        private final BucketBitmapIndex ratingIndex = new BucketBitmapIndex(0, 0.5, 64);
+
+        Columns(int capacity) {
+            allocate(capacity);
+            for (int i = 0; i < typeRows.length; i++) {
+                typeRows[i] = new RoaringBitmap();
+            }
+        }
+
+        void append(Ship ship) {
+            if (size == ids.length) {
+                grow(size * 2);
+            }
+            if (size > 0 && ids[size - 1] > ship.getId()) {
+                sortedById = false;
+            }
+            rowById.put(ship.getId(), size);
+            set(size++, ship);
+        }
+
+        void put(Ship ship) {
+            Integer row = rowById.get(ship.getId());
+            if (row == null) {
+                append(ship);
+            } else {
+                set(row, ship);
+            }
+        }
+
+        void set(int row, Ship ship) {
+            if (live.contains(row)) {
+                unindex(row);
+            }
+            ids[row] = ship.getId();
+            names[row] = ship.getName();
+            planets[row] = ship.getPlanet();
+            types[row] = (byte) ship.getShipType().ordinal();
+            // the column is a DATE, ships written through the API still carry the time of day
+            prodDates[row] = ShipFilter.dayOf(ship.getProdDate().getTime());
+            speeds[row] = ship.getSpeed();
+            crewSizes[row] = ship.getCrewSize();
+            ratings[row] = ship.getRating();
+            index(row, ship.getUsed());
+        }
+
+        void remove(Long id) {
+            Integer row = rowById.remove(id);
+            if (row == null) return;
+
+            unindex(row);
+            names[row] = null;
+            planets[row] = null;
+            if (size - rowById.size() > Math.max(size / 2, MIN_CAPACITY)) {
+                compact();
+            }
+        }
+
+        Ship toShip(int row) {
+            Ship ship = new Ship();
+            ship.setId(ids[row]);
+            ship.setName(names[row]);
+            ship.setPlanet(planets[row]);
+            ship.setShipType(TYPES[types[row]]);
+            ship.setProdDate(new Date(prodDates[row]));
+            ship.setUsed(used.contains(row));
+            ship.setSpeed(speeds[row]);
+            ship.setCrewSize(crewSizes[row]);
+            ship.setRating(ratings[row]);
+            return ship;
+        }
+
+        // drops deleted rows, keeping the others in their order, and rebuilds the bitmaps
+        private void compact() {
+            RoaringBitmap usedBefore = used.clone();
+            boolean[] usedRows = new boolean[rowById.size()];
+            int target = 0;
+            for (int row = 0; row < size; row++) {
+                if (!live.contains(row)) continue;
+                if (row != target) {
+                    move(row, target);
+                }
+                usedRows[target] = usedBefore.contains(row);
+                rowById.put(ids[target], target);
+                target++;
+            }
+            size = target;
+
+            live.clear();
+            used.clear();
+            unused.clear();
+            for (RoaringBitmap rows : typeRows) {
+                rows.clear();
+            }
+            dayIndex.clear();
+            speedIndex.clear();
+            crewSizeIndex.clear();
+            ratingIndex.clear();
+            for (int row = 0; row < size; row++) {
+                index(row, usedRows[row]);
+            }
+        }
+
+        private void index(int row, boolean isUsed) {
+            live.add(row);
+            (isUsed ? used : unused).add(row);
+            typeRows[types[row]].add(row);
+            dayIndex.add(row, prodDates[row]);
+            speedIndex.add(row, speeds[row]);
+            crewSizeIndex.add(row, crewSizes[row]);
+            ratingIndex.add(row, ratings[row]);
+        }
+
+        private void unindex(int row) {
+            live.remove(row);
+            used.remove(row);
+            unused.remove(row);
+            typeRows[types[row]].remove(row);
+            dayIndex.remove(row, prodDates[row]);
+            speedIndex.remove(row, speeds[row]);
+            crewSizeIndex.remove(row, crewSizes[row]);
+            ratingIndex.remove(row, ratings[row]);
+        }
+
+        private void move(int from, int to) {
+            ids[to] = ids[from];
+            names[to] = names[from];
+            planets[to] = planets[from];
+            types[to] = types[from];
+            prodDates[to] = prodDates[from];
+            speeds[to] = speeds[from];
+            crewSizes[to] = crewSizes[from];
+            ratings[to] = ratings[from];
+            names[from] = null;
+            planets[from] = null;
+        }
+
+        private void allocate(int capacity) {
+            ids = new long[capacity];
+            names = new String[capacity];
+            planets = new String[capacity];
+            types = new byte[capacity];
+            prodDates = new long[capacity];
+            speeds = new double[capacity];
+            crewSizes = new int[capacity];
+            ratings = new double[capacity];
+        }
+
+        private void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            planets = Arrays.copyOf(planets, capacity);
+            types = Arrays.copyOf(types, capacity);
+            prodDates = Arrays.copyOf(prodDates, capacity);
+            speeds = Arrays.copyOf(speeds, capacity);
+            crewSizes = Arrays.copyOf(crewSizes, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+        }
+    }
+
+    /**
+     * {@link ShipFilter} unboxed into bounds on the columns, absent criteria become open bounds.
+     * Bounds are doubles so that every range goes through the same {@link BucketBitmapIndex}.
+     */
+    private static class Criteria {
+        private final String name;
+        private final String planet;
+        private final int type;
+        private final double afterDay;
+        private final double beforeDay;
+        private final int used;
+        private final double minSpeed;
+        private final double maxSpeed;
+        private final double minCrewSize;
+        private final double maxCrewSize;
+        private final double minRating;
+        private final double maxRating;
+
+        Criteria(ShipFilter filter) {
+            name = filter.getName();
+            planet = filter.getPlanet();
+            type = filter.getShipType() == null ? -1 : filter.getShipType().ordinal();
+            afterDay = filter.getAfter() == null ? Double.NEGATIVE_INFINITY : filter.getAfterDay().getTime();
+            beforeDay = filter.getBefore() == null ? Double.POSITIVE_INFINITY : filter.getBeforeDay().getTime();
+            used = filter.getUsed() == null ? -1 : filter.getUsed() ? 1 : 0;
+            minSpeed = filter.getMinSpeed() == null ? Double.NEGATIVE_INFINITY : filter.getMinSpeed();
+            maxSpeed = filter.getMaxSpeed() == null ? Double.POSITIVE_INFINITY : filter.getMaxSpeed();
+            minCrewSize = filter.getMinCrewSize() == null ? Double.NEGATIVE_INFINITY : filter.getMinCrewSize();
+            maxCrewSize = filter.getMaxCrewSize() == null ? Double.POSITIVE_INFINITY : filter.getMaxCrewSize();
+            minRating = filter.getMinRating() == null ? Double.NEGATIVE_INFINITY : filter.getMinRating();
+            maxRating = filter.getMaxRating() == null ? Double.POSITIVE_INFINITY : filter.getMaxRating();
+        }
+
+        /**
+         * @return live rows meeting every criterion but the text ones, not to be modified
+         */
+        RoaringBitmap candidates(Columns columns) {
+            RoaringBitmap result = null;
+            if (type >= 0) {
+                result = columns.typeRows[type];
+            }
+            if (used >= 0) {
+                result = and(result, used == 1 ? columns.used : columns.unused);
+            }
+            result = and(result, columns.speedIndex.range(minSpeed, maxSpeed, row -> columns.speeds[row]));
+            result = and(result, columns.crewSizeIndex.range(minCrewSize, maxCrewSize, row -> columns.crewSizes[row]));
+            result = and(result, columns.ratingIndex.range(minRating, maxRating, row -> columns.ratings[row]));
+            result = and(result, columns.dayIndex.range(afterDay, beforeDay, row -> columns.prodDates[row]));
+            return result == null ? columns.live : result;
+        }
+
+        boolean hasText() {
+            return name != null || planet != null;
+        }
+
+        boolean matchesText(Columns columns, int row) {
+            if (name != null && !columns.names[row].contains(name)) return false;
+            if (planet != null && !columns.planets[row].contains(planet)) return false;
+            return true;
+        }
+
+        private static RoaringBitmap and(RoaringBitmap result, RoaringBitmap rows) {
+            if (rows == null) return result;
+            if (result == null) return rows;
+            return RoaringBitmap.and(result, rows);
+        }
+    }
+
+    /**
+     * Keyset condition of a cursor, (sortKey, id) strictly after the cursor's.
+     */
+    private static class Seek {
+        private final ShipOrder order;
+        private final boolean first;
+        private final double doubleKey;
+        private final long longKey;
+        private final long id;
+
+        Seek(ShipCursor cursor) {
+            order = cursor.getOrder();
+            first = cursor.isFirst();
+            id = first ? 0 : cursor.getId();
+            Object key = cursor.getSortKey();
+            doubleKey = key instanceof Double ? (Double) key : 0;
+            longKey = key instanceof Date ? ((Date) key).getTime() : 0;
+        }
+
+        boolean matches(Columns columns, int row) {
+            if (first) return true;
+
+            int result;
+            switch (order) {
+                case SPEED:
+                    result = Double.compare(columns.speeds[row], doubleKey);
+                    break;
+                case RATING:
+                    result = Double.compare(columns.ratings[row], doubleKey);
+                    break;
+                case DATE:
+                    result = Long.compare(columns.prodDates[row], longKey);
+                    break;
+                default:
+                    result = 0;
+            }
+            return result > 0 || (result == 0 && columns.ids[row] > id);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import com.space.model.ShipUtils;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram inverted index over {@link Ship#getName()} and {@link Ship#getPlanet()}.
+ * <p>
+ * A "contains" filter is resolved to the ids of ships holding every trigram of the
+ * searched text. The result is a superset of the real matches, the database still
+ * applies the LIKE predicate, but only to those rows.
+ * <p>
+ * Trigrams are packed into a long and map to compressed id bitmaps; the indexed text
+ * itself is not kept, updates unindex the old values the change event carries.
+ * <p>
+ * A rebuild scans the table without holding the lock. Changes arriving meanwhile are applied to the
+ * live index and recorded, then replayed onto the rebuilt one before it is swapped in.
+ */
+@Component
+public class ShipTextIndex implements ShipChangeListener, InitializingBean {
+
+    private static final int GRAM = 3;
+
+    private static final String SELECT_SQL = "SELECT id, name, planet FROM ship WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, Roaring64NavigableMap> names = new HashMap<>();
+    private Map<Long, Roaring64NavigableMap> planets = new HashMap<>();
+    // changes made during a rebuild, null when none is running
+    private List<Change> missed;
+
+    public ShipTextIndex(JdbcTemplate jdbcTemplate, @Value("${batch.ships.size}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        fleetChanged();
+    }
+
+    /**
+     * @return ids of possible matches, or {@code null} when the filter cannot be narrowed by the index
+     */
+    public Roaring64NavigableMap candidates(ShipFilter filter) {
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap byName = lookup(names, filter.getName());
+            Roaring64NavigableMap byPlanet = lookup(planets, filter.getPlanet());
+
+            if (byName == null) return byPlanet;
+            if (byPlanet == null) return byName;
+            byName.and(byPlanet);
+            return byName;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void shipCreated(Ship ship) {
+        long id = ship.getId();
+        String name = ship.getName();
+        String planet = ship.getPlanet();
+        apply((names, planets) -> {
+            add(names, id, name);
+            add(planets, id, planet);
+        });
+    }
+
+    @Override
+    public void shipUpdated(Ship oldShip, Ship newShip) {
+        long id = newShip.getId();
+        String oldName = oldShip.getName();
+        String oldPlanet = oldShip.getPlanet();
+        String newName = newShip.getName();
+        String newPlanet = newShip.getPlanet();
+        apply((names, planets) -> {
+            remove(names, id, oldName);
+            remove(planets, id, oldPlanet);
+            add(names, id, newName);
+            add(planets, id, newPlanet);
+        });
+    }
+
+    @Override
+    public void shipDeleted(Long id) {
+        // the deleted values are not known, sweep every posting
+        apply((names, planets) -> {
+            removeEverywhere(names, id);
+            removeEverywhere(planets, id);
+        });
+    }
+
+    @Override
+    public synchronized void fleetChanged() {
+        setMissed(new ArrayList<>());
+        try {
+            Map<Long, Roaring64NavigableMap> loadedNames = new HashMap<>();
+            Map<Long, Roaring64NavigableMap> loadedPlanets = new HashMap<>();
+
+            long[] afterId = {0};
+            int[] read = new int[1];
+            do {
+                read[0] = 0;
+                jdbcTemplate.query(SELECT_SQL, rs -> {
+                    long id = rs.getLong(1);
+                    add(loadedNames, id, rs.getString(2));
+                    add(loadedPlanets, id, rs.getString(3));
+                    afterId[0] = id;
+                    read[0]++;
+                }, afterId[0], chunkSize);
+            } while (read[0] == chunkSize);
+
+            loadedNames.values().forEach(Roaring64NavigableMap::runOptimize);
+            loadedPlanets.values().forEach(Roaring64NavigableMap::runOptimize);
+
+            lock.writeLock().lock();
+            try {
+                // every change is idempotent, replaying one the scan already saw does no harm
+                missed.forEach(change -> change.apply(loadedNames, loadedPlanets));
+                names = loadedNames;
+                planets = loadedPlanets;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            setMissed(null);
+        }
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            change.apply(names, planets);
+            if (missed != null) {
+                missed.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setMissed(List<Change> changes) {
+        lock.writeLock().lock();
+        try {
+            missed = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void add(Map<Long, Roaring64NavigableMap> index, long id, String text) {
+        for (long gram : trigrams(text)) {
+            index.computeIfAbsent(gram, k -> new Roaring64NavigableMap()).addLong(id);
+        }
+    }
+
+    private static void remove(Map<Long, Roaring64NavigableMap> index, long id, String text) {
+        for (long gram : trigrams(text)) {
+            Roaring64NavigableMap ids = index.get(gram);
+            if (ids != null) {
+                ids.removeLong(id);
+                if (ids.isEmpty()) index.remove(gram);
+            }
+        }
+    }
+
+    private static void removeEverywhere(Map<Long, Roaring64NavigableMap> index, long id) {
+        Iterator<Roaring64NavigableMap> postings = index.values().iterator();
+        while (postings.hasNext()) {
+            Roaring64NavigableMap ids = postings.next();
+            ids.removeLong(id);
+            if (ids.isEmpty()) postings.remove();
+        }
+    }
+
+    private static Roaring64NavigableMap lookup(Map<Long, Roaring64NavigableMap> index, String text) {
+        if (text == null || text.length() < GRAM) return null;
+
+        List<Roaring64NavigableMap> postings = new ArrayList<>();
+        for (long gram : trigrams(text)) {
+            Roaring64NavigableMap ids = index.get(gram);
+            if (ids == null) return new Roaring64NavigableMap();
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingLong(Roaring64NavigableMap::getLongCardinality));
+
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        result.or(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.and(postings.get(i));
+        }
+        return result;
+    }
+
+    private interface Change {
+        void apply(Map<Long, Roaring64NavigableMap> names, Map<Long, Roaring64NavigableMap> planets);
+    }
+
+    private static long[] trigrams(String text) {
+        if (text == null || text.length() < GRAM) return new long[0];
+
+        String lower = ShipUtils.fold(text);
+        if (lower.length() < GRAM) return new long[0];
+        long[] grams = new long[lower.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) lower.charAt(i) << 32 | (long) lower.charAt(i + 1) << 16 | lower.charAt(i + 2);
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,57 @@
+package com.space.service;
+
+import com.space.exceptions.WrongRequestException;
+import com.space.model.Ship;
+import com.space.model.ShipUtils;
+
+import java.util.Date;
+
+public final class ShipValidator {
+
+    private ShipValidator() {
+    }
+
+    public static void checkNewShip(Ship ship) {
+        if (ship.getName() == null || ship.getPlanet() == null || ship.getShipType() == null
+                || ship.getProdDate() == null || ship.getSpeed() == null || ship.getCrewSize() == null) {
+            throw new WrongRequestException("name, planet, shipType, prodDate, speed and crewSize are required");
+        }
+        checkStringValue(ship.getName());
+        checkStringValue(ship.getPlanet());
+        checkSpeed(ship.getSpeed());
+        checkCrewSize(ship.getCrewSize());
+        checkDate(ship.getProdDate());
+    }
+
+    public static void checkId(Long id) {
+        if (id == null || id <= 0) {
+            throw new WrongRequestException("id must be positive");
+        }
+    }
+
+    public static void checkStringValue(String value) {
+        if (value.length() > 50 || value.isEmpty()) {
+            throw new WrongRequestException("name and planet must be 1 to 50 characters long");
+        }
+    }
+
+    public static void checkDate(Date date) {
+        int prodDate = ShipUtils.yearOf(date.getTime());
+
+        if (prodDate < 2800 || prodDate > ShipUtils.CURRENT_YEAR) {
+            throw new WrongRequestException("prodDate must be within years 2800..3019");
+        }
+    }
+
+    public static void checkSpeed(Double speed) {
+        if (speed < 0.01d || speed > 0.99d) {
+            throw new WrongRequestException("speed must be within 0.01..0.99");
+        }
+    }
+
+    public static void checkCrewSize(Integer crewSize) {
+        if (crewSize < 1 || crewSize > 9999) {
+            throw new WrongRequestException("crewSize must be within 1..9999");
+        }
+    }
+}
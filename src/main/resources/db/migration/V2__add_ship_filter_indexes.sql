@@ -0,0 +1,11 @@
+-- shipType and isUsed are the usual equality filters, combined with a range or an order on
+-- rating, speed or prodDate. The trailing id keeps the (sortKey, id) keyset seek on the index.
+CREATE INDEX idx_ship_type_used_rating ON ship (shipType, isUsed, rating, id);
+CREATE INDEX idx_ship_type_used_speed ON ship (shipType, isUsed, speed, id);
+CREATE INDEX idx_ship_type_used_prod_date ON ship (shipType, isUsed, prodDate, id);
+
+-- Range filters and orders used without an equality prefix.
+CREATE INDEX idx_ship_rating ON ship (rating, id);
+CREATE INDEX idx_ship_speed ON ship (speed, id);
+CREATE INDEX idx_ship_prod_date ON ship (prodDate, id);
+CREATE INDEX idx_ship_crew_size ON ship (crewSize);
@@ -1,7 +1,9 @@
 function loadContent(root, suffix, currentPage) {
 
-    let objects = JSON.parse(Get(root + "/rest/ships" + suffix).responseText);
-    let shipsCount = Get(root + "/rest/ships/count" + suffix).responseText;
+    let response = Get(root + "/rest/ships/page" + suffix);
+    let page = JSON.parse(response.responseText);
+    let objects = page.items;
+    let shipsCount = page.total;
     document.getElementById("count").innerText = "Ships found: " + shipsCount;
     let table = document.getElementById("mainTable");
     table.innerHTML = "";
@@ -0,0 +1,82 @@
+package com.space.config;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CompressionFilterTest {
+
+    private static final WriteListener LISTENER = new WriteListener() {
+        @Override
+        public void onWritePossible() {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+    };
+
+    @Test
+    public void nonBlockingWritesReachContainerUncompressed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rest/ships");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ContainerResponse container = new ContainerResponse(response);
+
+        new CompressionFilter(16).doFilter(request, container, (req, res) -> {
+            res.setContentType("application/json");
+            ServletOutputStream out = res.getOutputStream();
+            out.write("[{".getBytes(StandardCharsets.UTF_8));
+            out.setWriteListener(LISTENER);
+            assertFalse("isReady не передаётся потоку контейнера", out.isReady());
+            out.write("\"name\":\"Daedalus\"}]".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertSame("WriteListener не передаётся потоку контейнера", LISTENER, container.listener);
+        assertNull("Неблокирующий ответ не должен сжиматься", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Неблокирующий ответ записан не полностью", "[{\"name\":\"Daedalus\"}]", response.getContentAsString());
+    }
+
+    private static final class ContainerResponse extends HttpServletResponseWrapper {
+
+        private final MockHttpServletResponse response;
+        private WriteListener listener;
+
+        private ContainerResponse(MockHttpServletResponse response) {
+            super(response);
+            this.response = response;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    response.getOutputStream().write(b);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return listener == null;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    listener = writeListener;
+                }
+            };
+        }
+    }
+}
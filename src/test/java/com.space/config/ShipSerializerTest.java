@@ -0,0 +1,49 @@
+package com.space.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShipSerializerTest {
+
+    private final ObjectMapper mapper = WebConfig.createObjectMapper();
+
+    private final ObjectMapper reflective = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+
+    @Test
+    public void writesSameJsonAsFieldAccess() throws Exception {
+        Ship ship = new Ship();
+        ship.setId(7L);
+        ship.setName("Daedalus \"II\" – ёж");
+        ship.setPlanet("Mars");
+        ship.setShipType(ShipType.MILITARY);
+        ship.setProdDate(new Date(32188140000000L));
+        ship.setUsed(true);
+        ship.setSpeed(0.71);
+        ship.setCrewSize(1234);
+        ship.setRating(2.35);
+
+        assertEquals("Сериализация корабля отличается от прежней",
+                reflective.writeValueAsString(ship), mapper.writeValueAsString(ship));
+        assertEquals("Сериализация списка кораблей отличается от прежней",
+                reflective.writeValueAsString(Arrays.asList(ship, ship)), mapper.writeValueAsString(Arrays.asList(ship, ship)));
+    }
+
+    @Test
+    public void writesNullFields() throws Exception {
+        Ship ship = new Ship();
+
+        assertEquals("Сериализация пустого корабля отличается от прежней",
+                reflective.writeValueAsString(ship), mapper.writeValueAsString(ship));
+    }
+}
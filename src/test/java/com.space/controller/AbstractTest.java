@@ -1,8 +1,11 @@
 package com.space.controller;
 
 import com.space.config.AppConfig;
+import com.space.config.CompressionFilter;
 import com.space.config.MyWebAppInit;
 import com.space.config.WebConfig;
+import com.space.service.ShipChangeListener;
+import com.space.service.ShipQueryCache;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +16,14 @@ import org.springframework.test.context.jdbc.SqlConfig;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
 @RunWith(SpringJUnit4ClassRunner.class)
 @ActiveProfiles("dev")
 @ContextConfiguration(classes = {AppConfig.class, MyWebAppInit.class, WebConfig.class})
@@ -24,7 +32,7 @@ import org.springframework.web.context.WebApplicationContext;
 public abstract class AbstractTest {
 
     WebApplicationContext context;
-    MockMvc mockMvc;
+    AsyncMockMvc mockMvc;
 
     @Autowired
     public void setContext(WebApplicationContext context) {
@@ -33,6 +41,50 @@ public abstract class AbstractTest {
 
     @Before
     public void setup() {
-        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        mockMvc = new AsyncMockMvc(MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean(CompressionFilter.class))
+                .build(), context.getBean(ShipQueryCache.class));
+        context.getBeansOfType(ShipChangeListener.class).values().forEach(ShipChangeListener::fleetChanged);
+    }
+
+    /**
+     * Completes requests handled asynchronously by waiting for the result and running the async
+     * dispatch, so tests see the final response whichever way the endpoint is served. Query cache
+     * loads started by the request are awaited as well, statement counts and cache stats stay exact.
+     */
+    static class AsyncMockMvc {
+
+        private final MockMvc mockMvc;
+        private final ShipQueryCache queryCache;
+
+        AsyncMockMvc(MockMvc mockMvc, ShipQueryCache queryCache) {
+            this.mockMvc = mockMvc;
+            this.queryCache = queryCache;
+        }
+
+        ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+            ResultActions actions = mockMvc.perform(requestBuilder);
+            MvcResult result = actions.andReturn();
+            if (result.getRequest().isAsyncStarted()) {
+                result.getAsyncResult();
+                actions = mockMvc.perform(asyncDispatch(result));
+            }
+            awaitCacheLoads();
+            return actions;
+        }
+
+        private void awaitCacheLoads() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (queryCache.getPendingLoads() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+
+        /**
+         * @return the response of the initial dispatch only, for asserting on async handling itself
+         */
+        ResultActions performStarting(RequestBuilder requestBuilder) throws Exception {
+            return mockMvc.perform(requestBuilder);
+        }
     }
 }
@@ -0,0 +1,66 @@
+package com.space.controller;
+
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AsyncQueryTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void listingIsHandledAsynchronously() throws Exception {
+        mockMvc.performStarting(get("/rest/ships?withTotal=true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(request().asyncStarted());
+
+        mockMvc.perform(get("/rest/ships?withTotal=true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ShipController.TOTAL_COUNT_HEADER, "40"));
+    }
+
+    //test2
+    @Test
+    public void saturatedExecutorAnswersServiceUnavailable() throws Exception {
+        ThreadPoolTaskExecutor executor = context.getBean("queryExecutor", ThreadPoolTaskExecutor.class);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // until every thread is blocked and the queue is full, so no slot can free up
+            while (executor.getActiveCount() < executor.getMaxPoolSize()
+                    || executor.getThreadPoolExecutor().getQueue().remainingCapacity() > 0) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (TaskRejectedException e) {
+                    Thread.sleep(1);
+                }
+            }
+
+            mockMvc.perform(get("/rest/ships/count"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+        }
+        while (executor.getActiveCount() > 0 || !executor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        mockMvc.perform(get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("40"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CborFormatTest extends AbstractTest {
+
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getAllReturnsCborWhenAccepted() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships?pageSize=20")
+                .accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn().getResponse();
+
+        List<ShipInfoTest> actual = cborMapper.readValue(response.getContentAsByteArray(), typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 20, testsHelper.getAllShips());
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships в формате CBOR.", expected, actual);
+
+        int jsonSize = mockMvc.perform(get("/rest/ships?pageSize=20")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn().getResponse().getContentAsByteArray().length;
+        assertTrue("Ответ в формате CBOR не меньше JSON", response.getContentAsByteArray().length < jsonSize);
+    }
+
+    //test2
+    @Test
+    public void getShipWithoutAcceptReturnsJson() throws Exception {
+        mockMvc.perform(get("/rest/ships/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,68 @@
+package com.space.controller;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CompressionTest extends AbstractTest {
+
+    private static final String LARGE_LISTING = "/rest/ships?pageSize=40";
+
+    //test1
+    @Test
+    public void largeListingIsGzipped() throws Exception {
+        String plain = mockMvc.perform(get(LARGE_LISTING))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString();
+
+        MockHttpServletResponse response = mockMvc.perform(get(LARGE_LISTING)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+
+        byte[] compressed = response.getContentAsByteArray();
+        String content = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8);
+        assertEquals("Распакованный ответ отличается от несжатого", plain, content);
+        assertTrue("Сжатый ответ не меньше несжатого", compressed.length < plain.length());
+    }
+
+    //test2
+    @Test
+    public void deflateIsUsedWhenGzipIsNotAccepted() throws Exception {
+        String plain = mockMvc.perform(get(LARGE_LISTING))
+                .andReturn().getResponse().getContentAsString();
+
+        byte[] compressed = mockMvc.perform(get(LARGE_LISTING)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "deflate"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String content = StreamUtils.copyToString(new InflaterInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8);
+        assertEquals("Распакованный ответ отличается от несжатого", plain, content);
+    }
+
+    //test3
+    @Test
+    public void smallResponseIsNotCompressed() throws Exception {
+        mockMvc.perform(get("/rest/ships/count")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "2"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNotNull;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ConditionalGetTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void unchangedShipReturnsNotModified() throws Exception {
+        String etag = etagOf("/rest/ships/3");
+
+        mockMvc.perform(get("/rest/ships/3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        mockMvc.perform(post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        String changed = mockMvc.perform(get("/rest/ships/3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue("ETag не изменился после обновления корабля", !etag.equals(changed));
+    }
+
+    //test2
+    @Test
+    public void unchangedListingReturnsNotModifiedWithoutQuery() throws Exception {
+        String url = "/rest/ships?shipType=MERCHANT&pageSize=5";
+        String etag = etagOf(url);
+        long queries = pageQueries();
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals("При ответе 304 выполнялся запрос к сервису", queries, pageQueries());
+
+        assertTrue("ETag не зависит от фильтра", !etag.equals(etagOf("/rest/ships?shipType=MILITARY&pageSize=5")));
+        assertTrue("ETag не зависит от формата ответа", !etag.equals(mockMvc.perform(get(url)
+                .accept(MediaType.valueOf("application/cbor")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG)));
+
+        mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    //test3
+    @Test
+    public void writeToOtherShipKeepsShipTag() throws Exception {
+        String etag = etagOf("/rest/ships/3");
+
+        mockMvc.perform(post("/rest/ships/4")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/rest/ships/3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertTrue("ETag корабля зависит от формата ответа", !etag.equals(mockMvc.perform(get("/rest/ships/3")
+                .accept(MediaType.valueOf("application/cbor")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG)));
+    }
+
+    private String etagOf(String url) throws Exception {
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull("Нет заголовка ETag для " + url, etag);
+        return etag;
+    }
+
+    private long pageQueries() {
+        Timer timer = context.getBean(MeterRegistry.class).find("ship.service").tag("operation", "page").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,97 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestsHelper;
+import com.space.service.ShipQueryCache;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CreateShipsBatchTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void createShipsFromJsonArrayTest() throws Exception {
+        String content = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.EMPTY_NAME_JSON + "," + TestsHelper.NORMAL_JSON + "]";
+
+        JsonNode result = performBatch(MediaType.APPLICATION_JSON_UTF8, content);
+
+        assertEquals("Неверное число полученных кораблей", 3, result.get("received").asInt());
+        assertEquals("Неверное число созданных кораблей", 2, result.get("created").asInt());
+        assertEquals("Неверное число ошибок", 1, result.get("errors").size());
+        assertEquals("Ошибка указывает не на тот элемент", 1, result.get("errors").get(0).get("index").asInt());
+        assertEquals("Созданные корабли не видны в выборке", 42, getCount());
+    }
+
+    //test2
+    @Test
+    public void createShipsFromNdjsonTest() throws Exception {
+        String content = TestsHelper.NORMAL_JSON + "\n" + TestsHelper.NORMAL_JSON + "\n" + "{\"name\": \n";
+
+        JsonNode result = performBatch(MediaType.valueOf(ShipController.NDJSON_VALUE), content);
+
+        assertEquals("Неверное число созданных кораблей", 2, result.get("created").asInt());
+        assertEquals("Неверное число ошибок", 1, result.get("errors").size());
+        assertEquals("Ошибка указывает не на тот элемент", 2, result.get("errors").get(0).get("index").asInt());
+        assertEquals("Созданные корабли не видны в выборке", 42, getCount());
+    }
+
+    //test3
+    @Test
+    public void createShipsSkipsItemOfWrongTypeTest() throws Exception {
+        String wrongType = TestsHelper.NORMAL_JSON.replace("\"speed\":0.8", "\"speed\":\"abc\"");
+        String content = "[" + TestsHelper.NORMAL_JSON + "," + wrongType + "," + TestsHelper.NORMAL_JSON + "]";
+
+        JsonNode result = performBatch(MediaType.APPLICATION_JSON_UTF8, content);
+
+        assertEquals("Неверное число полученных кораблей", 3, result.get("received").asInt());
+        assertEquals("Неверное число созданных кораблей", 2, result.get("created").asInt());
+        assertEquals("Неверное число ошибок", 1, result.get("errors").size());
+        assertEquals("Ошибка указывает не на тот элемент", 1, result.get("errors").get(0).get("index").asInt());
+        assertEquals("Созданные корабли не видны в выборке", 42, getCount());
+    }
+
+    //test4
+    @Test
+    public void createShipsUpdatesCachedQueriesTest() throws Exception {
+        ShipQueryCache queryCache = context.getBean(ShipQueryCache.class);
+        assertEquals("Неверное количество кораблей до загрузки", 0, getCount("?name=234567"));
+        long invalidations = queryCache.getInvalidationCount();
+        String content = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.NORMAL_JSON + "]";
+
+        performBatch(MediaType.APPLICATION_JSON_UTF8, content);
+
+        assertTrue("Небольшая загрузка сбросила кэш целиком вместо затронутых запросов",
+                queryCache.getInvalidationCount() > invalidations);
+        assertEquals("Созданные корабли не найдены по имени", 2, getCount("?name=234567"));
+    }
+
+    private JsonNode performBatch(MediaType contentType, String content) throws Exception {
+        String body = mockMvc.perform(post("/rest/ships/batch")
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(content))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(body);
+    }
+
+    private int getCount() throws Exception {
+        return getCount("");
+    }
+
+    private int getCount(String query) throws Exception {
+        String body = mockMvc.perform(get("/rest/ships/count" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Integer.parseInt(body);
+    }
+}
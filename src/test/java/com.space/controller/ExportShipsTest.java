@@ -0,0 +1,51 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportShipsTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportNdjsonTest() throws Exception {
+        String[] lines = perform("/rest/ships/export?shipType=MILITARY&order=SPEED").split("\n");
+
+        assertEquals("Экспорт вернул не все отфильтрованные корабли", (long) lines.length, count("/rest/ships/count?shipType=MILITARY"));
+        double previous = 0;
+        for (String line : lines) {
+            JsonNode ship = mapper.readTree(line);
+            assertEquals("В экспорт попал корабль другого типа", "MILITARY", ship.get("shipType").asText());
+            assertEquals("Экспорт не отсортирован по скорости", true, ship.get("speed").asDouble() >= previous);
+            previous = ship.get("speed").asDouble();
+        }
+    }
+
+    //test2
+    @Test
+    public void exportCsvTest() throws Exception {
+        String[] lines = perform("/rest/ships/export?isUsed=true&format=CSV").split("\n");
+
+        assertEquals("CSV экспорт без заголовка", "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating", lines[0]);
+        assertEquals("CSV экспорт вернул не все отфильтрованные корабли", (long) lines.length - 1, count("/rest/ships/count?isUsed=true"));
+        for (int i = 1; i < lines.length; i++) {
+            assertEquals("В экспорт попал новый корабль", "true", lines[i].split(",")[5]);
+        }
+    }
+
+    private String perform(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private long count(String url) throws Exception {
+        return Long.parseLong(perform(url));
+    }
+}
@@ -4,16 +4,22 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.controller.utils.ShipInfoTest;
 import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
+import com.space.service.ShipTextIndex;
 import org.junit.Test;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetAllTest extends AbstractTest {
@@ -217,4 +223,97 @@ public class GetAllTest extends AbstractTest {
 
         assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами after, before, minCrewSize и maxCrewSize.", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test11
+    @Test
+    public void getAllWithTotalReturnsPageAndCount() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?planet=ur&withTotal=true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> filtered = testsHelper.getShipInfosByPlanet("ur", testsHelper.getAllShips());
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3, filtered);
+        String total = result.getResponse().getHeader(ShipController.TOTAL_COUNT_HEADER);
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметром withTotal.", expected, actual);
+        assertEquals("Возвращается не правильное количество кораблей в заголовке X-Total-Count.", String.valueOf(filtered.size()), total);
+    }
+
+    //test12
+    @Test
+    public void getAllWithCursorWalksAllShipsInOrder() throws Exception {
+        List<ShipInfoTest> actual = new ArrayList<>();
+        String cursor = "";
+
+        while (cursor != null) {
+            MvcResult result = mockMvc.perform(get("/rest/ships?order=RATING&pageSize=7&cursor=" + cursor)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            actual.addAll(mapper.readValue(result.getResponse().getContentAsString(), typeReference));
+            cursor = result.getResponse().getHeader(ShipController.NEXT_CURSOR_HEADER);
+        }
+
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.RATING, testsHelper.getAllShips());
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/ships с параметром cursor.", expected, actual);
+    }
+
+    //test13
+    @Test
+    public void getAllWithFiltersLongNameLongPlanet() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships?name=ter&planet=Sat&pageSize=10")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        String contentAsString = result.getResponse().getContentAsString();
+
+        List<ShipInfoTest> actual = mapper.readValue(contentAsString, typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 10,
+                testsHelper.getShipInfosByName("ter",
+                        testsHelper.getShipInfosByPlanet("Sat",
+                                testsHelper.getAllShips())));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships с параметрами name и planet.", expected, actual);
+
+        Roaring64NavigableMap candidates = context.getBean(ShipTextIndex.class).candidates(new ShipFilter("ter", "Sat",
+                null, null, null, null, null, null, null, null, null, null));
+        assertTrue("Индекс не сужает выборку по name и planet",
+                candidates.getLongCardinality() < testsHelper.getAllShips().size());
+        for (ShipInfoTest ship : expected) {
+            assertTrue("Индекс потерял подходящий корабль " + ship.name, candidates.contains(ship.id));
+        }
+    }
+
+    //test14
+    @Test
+    public void getAllWithNameFilterFindsUpdatedShip() throws Exception {
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Zyxwvut\"}"))
+                .andExpect(status().isOk());
+
+        String oldName = testsHelper.getShipInfosById(14).name;
+        String byNewName = mockMvc.perform(get("/rest/ships?name=xwv")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String byOldName = mockMvc.perform(get("/rest/ships?pageSize=40&name=" + oldName)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<ShipInfoTest> found = mapper.readValue(byNewName, typeReference);
+        List<ShipInfoTest> notFound = mapper.readValue(byOldName, typeReference);
+
+        assertEquals("После обновления корабль не находится по новому имени.", 1, found.size());
+        assertEquals("После обновления корабль не находится по новому имени.", 14L, (long) found.get(0).id);
+        assertEquals("После обновления корабль находится по старому имени.", false,
+                notFound.stream().anyMatch(s -> s.id == 14L));
+    }
+}
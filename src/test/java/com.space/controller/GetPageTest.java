@@ -0,0 +1,89 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetPageTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void getPageWithoutFiltersReturnsFirstPageAndTotal() throws Exception {
+        JsonNode page = getPage("/rest/ships/page");
+
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3, testsHelper.getAllShips());
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/page.",
+                expected, mapper.convertValue(page.get("items"), typeReference));
+        assertEquals("Возвращается не правильное общее количество при запросе GET /rest/ships/page.",
+                testsHelper.getAllShips().size(), page.get("total").asInt());
+        assertEquals("Неверный номер страницы", 0, page.get("pageNumber").asInt());
+        assertEquals("Неверный размер страницы", 3, page.get("pageSize").asInt());
+    }
+
+    //test2
+    @Test
+    public void getPageWithFiltersNamePageNumber() throws Exception {
+        JsonNode page = getPage("/rest/ships/page?name=ra&pageNumber=1");
+
+        List<ShipInfoTest> matching = testsHelper.getShipInfosByName("ra", testsHelper.getAllShips());
+        assertEquals("Возвращается не правильный список при запросе GET /rest/ships/page с параметрами name и pageNumber.",
+                testsHelper.getShipInfosByPage(1, 3, matching), mapper.convertValue(page.get("items"), typeReference));
+        assertEquals("Возвращается не правильное общее количество при запросе GET /rest/ships/page с параметрами name и pageNumber.",
+                matching.size(), page.get("total").asInt());
+    }
+
+    //test3
+    @Test
+    public void getPageWithWrongPageNumber() throws Exception {
+        mockMvc.perform(get("/rest/ships/page?pageNumber=-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void getPageWithTooLargeOffset() throws Exception {
+        mockMvc.perform(get("/rest/ships/page?pageNumber=2000000000&pageSize=100"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships?pageNumber=2000000000&pageSize=100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test5
+    @Test
+    public void getAllWithTotalMatchesPage() throws Exception {
+        JsonNode page = getPage("/rest/ships/page?planet=ur&pageNumber=1&pageSize=2");
+
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships?planet=ur&pageNumber=1&pageSize=2&withTotal=true")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Списки GET /rest/ships с параметром withTotal и GET /rest/ships/page не совпадают.",
+                mapper.convertValue(page.get("items"), typeReference), mapper.readValue(response.getContentAsString(), typeReference));
+        assertEquals("Общее количество GET /rest/ships с параметром withTotal и GET /rest/ships/page не совпадает.",
+                page.get("total").asText(), response.getHeader(ShipController.TOTAL_COUNT_HEADER));
+    }
+
+    private JsonNode getPage(String url) throws Exception {
+        String body = mockMvc.perform(get(url)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(body);
+    }
+}
@@ -3,12 +3,14 @@ package com.space.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.controller.utils.ShipInfoTest;
 import com.space.controller.utils.TestsHelper;
+import com.space.service.ShipCache;
 import org.junit.Test;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class GetShipTest extends AbstractTest {
@@ -51,4 +53,28 @@ public class GetShipTest extends AbstractTest {
         ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
         assertEquals("Вернулся неправильный объект при запросе GET /rest/ships/{id}", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test5
+    @Test
+    public void getShipByIdServedFromCacheUntilUpdatedTest() throws Exception {
+        ShipCache shipCache = context.getBean(ShipCache.class);
+        long hits = shipCache.getHitCount();
+
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isOk());
+        assertEquals("Повторный запрос GET /rest/ships/{id} не обслуживается из кэша", hits + 1, shipCache.getHitCount());
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\": \"Pluto\"}"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/14")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        ShipInfoTest actual = new ObjectMapper().readValue(contentAsString, ShipInfoTest.class);
+        assertEquals("После обновления GET /rest/ships/{id} возвращает устаревший объект из кэша", "Pluto", actual.planet);
+    }
+}
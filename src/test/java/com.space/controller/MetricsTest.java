@@ -0,0 +1,47 @@
+package com.space.controller;
+
+import org.junit.Test;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetricsTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void requestsAreTimedByEndpointAndOutcomeTest() throws Exception {
+        mockMvc.perform(get("/rest/ships?pageSize=5")).andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships/500")).andExpect(status().isNotFound());
+
+        String metrics = scrape();
+
+        assertTrue("Нет метрики успешных запросов GET /rest/ships",
+                metrics.contains("http_server_requests_seconds_count{exception=\"None\",method=\"GET\",status=\"200\",uri=\"/rest/ships\",}"));
+        assertTrue("Нет метрики запросов с WrongRequestException",
+                metrics.contains("http_server_requests_seconds_count{exception=\"WrongRequestException\",method=\"GET\",status=\"400\",uri=\"/rest/ships/{id}\",}"));
+        assertTrue("Нет метрики запросов с PageNotFoundException",
+                metrics.contains("http_server_requests_seconds_count{exception=\"PageNotFoundException\",method=\"GET\",status=\"404\",uri=\"/rest/ships/{id}\",}"));
+        assertTrue("Нет гистограммы времени ответа",
+                metrics.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",status=\"200\",uri=\"/rest/ships\","));
+    }
+
+    //test2
+    @Test
+    public void serviceRowsReturnedAndScannedTest() throws Exception {
+        mockMvc.perform(get("/rest/ships?pageSize=5")).andExpect(status().isOk());
+
+        String metrics = scrape();
+
+        assertTrue("Нет метрики времени сервиса", metrics.contains("ship_service_seconds_count{operation=\"page\",}"));
+        assertTrue("Нет метрики возвращённых строк", metrics.contains("ship_rows_returned_sum{operation=\"page\",}"));
+        assertTrue("Нет метрики просмотренных строк", metrics.contains("ship_rows_scanned_sum{operation=\"query\",source=\"database\",}"));
+    }
+
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.service.ShipQueryCache;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class QueryCacheTest extends AbstractTest {
+
+    private static final String MILITARY_URL = "/rest/ships?shipType=MILITARY&order=RATING&pageSize=40";
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    //test1
+    @Test
+    public void pagingThroughResultQueriesFilterOnce() throws Exception {
+        ShipQueryCache queryCache = context.getBean(ShipQueryCache.class);
+        long misses = queryCache.getMissCount();
+
+        for (int page = 0; page < 4; page++) {
+            perform("/rest/ships?isUsed=false&order=SPEED&pageNumber=" + page);
+        }
+        perform("/rest/ships/count?isUsed=false");
+
+        assertEquals("Постраничный обход одного фильтра выполняет запрос больше одного раза", misses + 1, queryCache.getMissCount());
+    }
+
+    //test2
+    @Test
+    public void createMatchingShipInvalidatesQuery() throws Exception {
+        int before = perform(MILITARY_URL).size();
+
+        mockMvc.perform(post("/rest/ships/")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        assertEquals("Созданный корабль не попал в закэшированный результат", before + 1, perform(MILITARY_URL).size());
+    }
+
+    //test3
+    @Test
+    public void updateOfUnrelatedFieldKeepsQueryAndDeleteInvalidatesIt() throws Exception {
+        ShipQueryCache queryCache = context.getBean(ShipQueryCache.class);
+        List<ShipInfoTest> ships = perform(MILITARY_URL);
+        long invalidations = queryCache.getInvalidationCount();
+
+        mockMvc.perform(post("/rest/ships/" + ships.get(0).id)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\": 42}"))
+                .andExpect(status().isOk());
+        assertEquals("Изменение поля, не участвующего в фильтре, сбросило кэш", invalidations, queryCache.getInvalidationCount());
+        assertEquals("Возвращается устаревший корабль из кэша", 42, (int) perform(MILITARY_URL).get(0).crewSize);
+
+        mockMvc.perform(delete("/rest/ships/" + ships.get(0).id)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        List<ShipInfoTest> actual = perform(MILITARY_URL);
+        assertEquals("Удалённый корабль остался в закэшированном результате", ships.size() - 1, actual.size());
+        assertEquals("Удалённый корабль остался в закэшированном результате", ships.get(1), actual.get(0));
+    }
+
+    //test4
+    @Test
+    public void resultReadBeforeWriteIsNotCached() {
+        ShipQueryCache queryCache = context.getBean(ShipQueryCache.class);
+        ShipFilter filter = new ShipFilter(null, null, ShipType.MILITARY, null, null, null, null, null, null, null, null, null);
+
+        long since = queryCache.generation();
+        queryCache.shipDeleted(1L);
+        queryCache.put(filter, ShipOrder.ID, ShipQueryCache.Result.ofIds(Collections.singletonList(1L)), since);
+
+        assertTrue("Результат, прочитанный до изменения, попал в кэш", queryCache.get(filter, ShipOrder.ID) == null);
+    }
+
+    private List<ShipInfoTest> perform(String url) throws Exception {
+        String content = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return url.contains("/count") ? null : mapper.readValue(content, typeReference);
+    }
+}
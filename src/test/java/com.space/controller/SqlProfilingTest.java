@@ -0,0 +1,41 @@
+package com.space.controller;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SqlProfilingTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void getShipByIdReportsOneStatementTest() throws Exception {
+        MockHttpServletResponse response = perform("/rest/ships/3");
+
+        assertEquals("Неверное число запросов к базе в заголовке", "1", response.getHeader(SqlStatsHeaderAdvice.STATEMENTS_HEADER));
+        assertEquals("Неверное число строк в заголовке", "1", response.getHeader(SqlStatsHeaderAdvice.ROWS_HEADER));
+
+        response = perform("/rest/ships/3");
+        assertEquals("Корабль из кэша не должен читаться из базы", "0", response.getHeader(SqlStatsHeaderAdvice.STATEMENTS_HEADER));
+    }
+
+    //test2
+    @Test
+    public void listingReportsRowsFetchedTest() throws Exception {
+        MockHttpServletResponse response = perform("/rest/ships?pageSize=5");
+
+        assertTrue("Нет запросов к базе в заголовке",
+                Integer.parseInt(response.getHeader(SqlStatsHeaderAdvice.STATEMENTS_HEADER)) > 0);
+        assertTrue("Строк прочитано меньше, чем возвращено",
+                Long.parseLong(response.getHeader(SqlStatsHeaderAdvice.ROWS_HEADER)) >= 5);
+    }
+
+    private MockHttpServletResponse perform(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+}
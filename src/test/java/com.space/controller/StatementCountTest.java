@@ -0,0 +1,86 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class StatementCountTest extends AbstractTest {
+
+    private Statistics statistics;
+
+    @Before
+    public void enableStatistics() {
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @After
+    public void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    //test1
+    @Test
+    public void getShipByIdRunsOneStatementThenNone() throws Exception {
+        assertStatements("GET /rest/ships/{id}", 1, get("/rest/ships/3"));
+        assertStatements("Повторный GET /rest/ships/{id}", 0, get("/rest/ships/3"));
+        assertStatements("GET /rest/ships/{id} несуществующего корабля", 1, get("/rest/ships/410"));
+    }
+
+    //test2
+    @Test
+    public void updateShipRunsSelectAndUpdate() throws Exception {
+        assertStatements("POST /rest/ships/{id}", 2, post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON));
+    }
+
+    //test3
+    @Test
+    public void deleteShipRunsOneStatement() throws Exception {
+        assertStatements("DELETE /rest/ships/{id}", 1, delete("/rest/ships/3"));
+        assertStatements("DELETE /rest/ships/{id} несуществующего корабля", 1, delete("/rest/ships/3"));
+    }
+
+    //test4
+    @Test
+    public void createShipRunsOneInsert() throws Exception {
+        assertStatements("POST /rest/ships", 1, post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON));
+    }
+
+    //test5
+    @Test
+    public void listingAndCountShareOneFilterQuery() throws Exception {
+        assertStatements("GET /rest/ships", 2, get("/rest/ships?shipType=MERCHANT"));
+        assertStatements("GET /rest/ships/count", 0, get("/rest/ships/count?shipType=MERCHANT"));
+    }
+
+    //test6
+    @Test
+    public void pageWithTotalRunsOneFilterQuery() throws Exception {
+        assertStatements("GET /rest/ships/page", 2, get("/rest/ships/page?shipType=MERCHANT"));
+        assertStatements("Повторный GET /rest/ships/page", 1, get("/rest/ships/page?shipType=MERCHANT"));
+    }
+
+    private void assertStatements(String request, long expected, RequestBuilder requestBuilder) throws Exception {
+        statistics.clear();
+        mockMvc.perform(requestBuilder);
+        assertEquals("Неверное количество SQL-запросов при запросе " + request, expected, statistics.getPrepareStatementCount());
+    }
+}
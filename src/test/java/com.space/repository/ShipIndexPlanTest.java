@@ -0,0 +1,65 @@
+package com.space.repository;
+
+import com.space.controller.AbstractTest;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.Assert.assertTrue;
+
+public class ShipIndexPlanTest extends AbstractTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void typeAndUsedOrderedByRatingUsesCompositeIndex() {
+        assertPlanUses("IDX_SHIP_TYPE_USED_RATING",
+                "SELECT * FROM ship WHERE shipType = 'MILITARY' AND isUsed = FALSE ORDER BY rating, id LIMIT 3");
+    }
+
+    @Test
+    public void typeAndUsedWithSpeedRangeUsesCompositeIndex() {
+        assertPlanUses("IDX_SHIP_TYPE_USED_SPEED",
+                "SELECT * FROM ship WHERE shipType = 'TRANSPORT' AND isUsed = TRUE AND speed BETWEEN 0.3 AND 0.6");
+    }
+
+    @Test
+    public void typeAndUsedWithProdDateRangeUsesCompositeIndex() {
+        assertPlanUses("IDX_SHIP_TYPE_USED_PROD_DATE",
+                "SELECT * FROM ship WHERE shipType = 'MERCHANT' AND isUsed = FALSE AND prodDate >= DATE '3000-01-01'");
+    }
+
+    @Test
+    public void ratingRangeUsesRatingIndex() {
+        assertPlanUses("IDX_SHIP_RATING", "SELECT * FROM ship WHERE rating >= 20");
+    }
+
+    @Test
+    public void crewSizeRangeUsesCrewSizeIndex() {
+        assertPlanUses("IDX_SHIP_CREW_SIZE", "SELECT * FROM ship WHERE crewSize BETWEEN 10 AND 100");
+    }
+
+    @Test
+    public void keysetSeekOnSpeedUsesSpeedIndex() {
+        assertPlanUses("IDX_SHIP_SPEED",
+                "SELECT * FROM ship WHERE speed > 0.9 OR (speed = 0.9 AND id > 5) ORDER BY speed, id LIMIT 3");
+    }
+
+    @Test
+    public void countByTypeAndUsedIsCoveredByIndex() {
+        assertPlanUses("IDX_SHIP_TYPE_USED_",
+                "SELECT COUNT(*) FROM ship WHERE shipType = 'MERCHANT' AND isUsed = TRUE");
+    }
+
+    private void assertPlanUses(String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue("Запрос не использует индекс " + index + ": " + plan, plan.toUpperCase().contains(index));
+    }
+}
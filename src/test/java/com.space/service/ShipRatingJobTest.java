@@ -0,0 +1,59 @@
+package com.space.service;
+
+import com.space.controller.AbstractTest;
+import com.space.model.ShipUtils;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShipRatingJobTest extends AbstractTest {
+
+    @Autowired
+    private ShipRatingJob ratingJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void recalculateFixesOnlyStaleRatings() {
+        ratingJob.recalculate();
+        List<Double> expected = jdbcTemplate.queryForList("SELECT rating FROM ship ORDER BY id", Double.class);
+        jdbcTemplate.update("UPDATE ship SET rating = 0 WHERE id <= 5");
+
+        assertEquals(5, ratingJob.recalculate());
+        assertEquals(expected, jdbcTemplate.queryForList("SELECT rating FROM ship ORDER BY id", Double.class));
+        assertEquals(0, ratingJob.recalculate());
+    }
+
+    @Test
+    public void recalculateSkipsShipsWithoutProductionDate() {
+        ratingJob.recalculate();
+        jdbcTemplate.update("UPDATE ship SET prodDate = NULL, rating = 0 WHERE id = 3");
+        jdbcTemplate.update("UPDATE ship SET rating = 0 WHERE id = 4");
+
+        assertEquals(1, ratingJob.recalculate());
+        assertEquals(1, ratingJob.getLastSkipped());
+        assertEquals(0.0, jdbcTemplate.queryForObject("SELECT rating FROM ship WHERE id = 3", Double.class), 0);
+    }
+
+    @Test
+    public void yearOfMatchesCalendar() {
+        Calendar cal = Calendar.getInstance();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            cal.clear();
+            cal.set(2800 + random.nextInt(220), random.nextInt(12), 1);
+            cal.add(Calendar.DAY_OF_MONTH, random.nextInt(31));
+            cal.add(Calendar.MINUTE, random.nextInt(24 * 60) - 1);
+            long millis = cal.getTimeInMillis();
+
+            assertEquals(cal.get(Calendar.YEAR), ShipUtils.yearOf(millis));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.space.service;
+
+import com.space.controller.AbstractTest;
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipCursor;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.repository.ShipRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShipSnapshotTest extends AbstractTest {
+
+    private static final List<ShipFilter> FILTERS = Arrays.asList(
+            new ShipFilter(null, null, null, null, null, null, null, null, null, null, null, null),
+            new ShipFilter(null, null, ShipType.MILITARY, null, null, false, null, null, null, null, null, null),
+            new ShipFilter(null, null, null, 32188140000000L, 33103890000000L, null, 0.3, 0.8, null, null, null, null),
+            new ShipFilter("a", "ar", null, null, null, true, null, null, 100, 3000, null, null),
+            new ShipFilter("ER", "EA", null, null, null, null, null, null, null, null, null, null),
+            new ShipFilter(null, null, ShipType.TRANSPORT, null, null, null, null, null, null, null, 0.5, 2.0),
+            new ShipFilter(null, null, null, null, 32188140000000L, null, 0.5, null, null, 500, null, 1.5));
+
+    @Autowired
+    private ShipService service;
+
+    @Autowired
+    private ShipSnapshot snapshot;
+
+    @Autowired
+    private ShipRepository shipRepository;
+
+    @Autowired
+    private ShipMetrics metrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int parallelThreshold;
+
+    @Before
+    public void rememberThreshold() {
+        parallelThreshold = snapshot.getParallelThreshold();
+    }
+
+    @After
+    public void disableSnapshot() {
+        snapshot.setEnabled(false);
+        snapshot.setParallelThreshold(parallelThreshold);
+    }
+
+    @Test
+    public void snapshotListsAndCountsLikeDatabase() {
+        List<String> expected = listEverything();
+        snapshot.setEnabled(true);
+
+        assertEquals(40, snapshot.getSize());
+        assertEquals(expected, listEverything());
+    }
+
+    @Test
+    public void parallelEvaluationMatchesSequential() {
+        snapshot.setEnabled(true);
+        List<String> sequential = listEverything();
+
+        snapshot.setParallelThreshold(0);
+        assertEquals(sequential, listEverything());
+    }
+
+    @Test
+    public void parallelEvaluationOfEmptyFleet() {
+        for (long id = 1; id <= 40; id++) {
+            service.deleteShipById(id);
+        }
+        snapshot.setEnabled(true);
+        snapshot.setParallelThreshold(0);
+
+        assertEquals(0, snapshot.getSize());
+        for (ShipFilter filter : FILTERS) {
+            assertEquals(0, service.getShipsCount(filter));
+            assertEquals(0, service.getAllShipsByPage(filter, ShipOrder.SPEED, 0, 5).size());
+        }
+    }
+
+    @Test
+    public void snapshotFollowsWrites() {
+        snapshot.setEnabled(true);
+
+        Ship ship = service.getShipById(1L);
+        Ship update = new Ship();
+        update.setSpeed(0.99);
+        service.updateShipById(update, 1L);
+        service.deleteShipById(2L);
+        for (long id = 3; id <= 30; id++) {
+            service.deleteShipById(id);
+        }
+        ship.setId(null);
+        ship.setProdDate(new Date(ship.getProdDate().getTime() + 13 * 60 * 60 * 1000));
+        service.createNewShip(ship);
+        List<String> fromSnapshot = listEverything();
+
+        snapshot.setEnabled(false);
+        assertEquals(listEverything(), fromSnapshot);
+    }
+
+    @Test
+    public void createDuringLoadIsKept() {
+        Ship ship = service.getShipById(1L);
+        ship.setId(1000L);
+        ship.setName("Zyxwv");
+
+        ShipSnapshot[] loading = new ShipSnapshot[1];
+        ShipRepository interleaving = (ShipRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ShipRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("streamAll") && loading[0] != null) {
+                        // the event of a commit the load does not see arrives mid-load
+                        loading[0].shipCreated(ship);
+                    }
+                    try {
+                        return method.invoke(shipRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        loading[0] = new ShipSnapshot(interleaving, metrics, transactionManager, false, parallelThreshold);
+        loading[0].setEnabled(true);
+
+        ShipFilter byName = new ShipFilter("Zyx", null, null, null, null, null, null, null, null, null, null, null);
+        assertEquals(41, loading[0].getSize());
+        assertEquals(Long.valueOf(1), loading[0].count(byName));
+    }
+
+    private List<String> listEverything() {
+        List<String> result = new ArrayList<>();
+        for (ShipFilter filter : FILTERS) {
+            result.add(String.valueOf(service.getShipsCount(filter)));
+            for (ShipOrder order : ShipOrder.values()) {
+                result.add(ids(service.getAllShipsByPage(filter, order, 0, 5)));
+                result.add(ids(service.getAllShipsByPage(filter, order, 1, 3)));
+                result.add(ids(service.getAllShipsByPage(filter, order, 3, 10)));
+                result.add(ids(service.getAllShipsByPage(filter, order, 6, 7)));
+
+                List<Ship> first = service.getAllShipsAfter(filter, ShipCursor.first(order), 4);
+                if (!first.isEmpty()) {
+                    Ship last = first.get(first.size() - 1);
+                    result.add(ids(service.getAllShipsAfter(filter, ShipCursor.after(order, last), 4)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String ids(List<Ship> ships) {
+        return ships.stream().map(ship -> ship.getId() + "/" + ship.getProdDate().getTime() + "/" + ship.getSpeed() + "/" + ship.getRating())
+                .collect(Collectors.joining(","));
+    }
+}
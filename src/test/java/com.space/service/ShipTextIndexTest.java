@@ -0,0 +1,45 @@
+package com.space.service;
+
+import com.space.controller.AbstractTest;
+import com.space.model.Ship;
+import com.space.model.ShipFilter;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.junit.Assert.assertTrue;
+
+public class ShipTextIndexTest extends AbstractTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void createDuringRebuildIsKept() {
+        Ship ship = new Ship();
+        ship.setId(1000L);
+        ship.setName("Zyxwv");
+        ship.setPlanet("Qwerty");
+
+        ShipTextIndex[] index = new ShipTextIndex[1];
+        boolean[] created = new boolean[1];
+        JdbcTemplate interleaving = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler rch, Object... args) {
+                super.query(sql, rch, args);
+                if (index[0] != null && !created[0]) {
+                    // the event of a commit the scan did not see arrives mid-rebuild
+                    created[0] = true;
+                    index[0].shipCreated(ship);
+                }
+            }
+        };
+        index[0] = new ShipTextIndex(interleaving, 10);
+        index[0].fleetChanged();
+
+        ShipFilter filter = new ShipFilter("Zyx", "Qwe", null, null, null, null, null, null, null, null, null, null);
+        assertTrue(created[0]);
+        assertTrue(index[0].candidates(filter).contains(1000L));
+    }
+}